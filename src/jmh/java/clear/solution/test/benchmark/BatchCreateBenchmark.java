@@ -0,0 +1,80 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.impl.UserServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating {@code batchSize} users one by one with a single batch create. Both variants run
+ * validation, mapping and the service call, i.e. everything the controller does except HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BatchCreateBenchmark {
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserMapper userMapper;
+    private UserServiceImpl userService;
+    private List<UserRequestDTO> requests;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        userMapper = new UserMapperImpl();
+        requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            requests.add(new UserRequestDTO("user" + i + "@example.org", "First" + i, "Last" + i,
+                    LocalDate.of(1990, 1, 1).plusDays(i), "42 Main St", "6625550144"));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void singleCreates(Blackhole blackhole) {
+        for (UserRequestDTO request : requests) {
+            blackhole.consume(validator.validate(request));
+            blackhole.consume(userService.createUser(userMapper.mapToUser(request)));
+        }
+    }
+
+    @Benchmark
+    public List<BatchCreateResult> batchCreate(Blackhole blackhole) {
+        List<User> users = new ArrayList<>(requests.size());
+        for (UserRequestDTO request : requests) {
+            blackhole.consume(validator.validate(request));
+            users.add(userMapper.mapToUser(request));
+        }
+        return userService.createUsers(users);
+    }
+}
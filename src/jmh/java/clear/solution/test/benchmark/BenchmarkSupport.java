@@ -0,0 +1,74 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.index.BirthDateIndex;
+import clear.solution.test.index.EmailIndex;
+import clear.solution.test.index.NameSearchIndex;
+import clear.solution.test.repository.UserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import clear.solution.test.service.impl.UserWriter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkSupport {
+    static final int MINIMAL_AGE = 18;
+    static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1940, 1, 1);
+    static final int BIRTH_DATE_SPREAD_DAYS = 365 * 60;
+    private static final int POPULATE_BATCH_SIZE = 10_000;
+
+    private BenchmarkSupport() {
+    }
+
+    static UserServiceImpl newUserService(UserRepository userRepository) {
+        return newUserService(userRepository, event -> {
+        });
+    }
+
+    static UserServiceImpl newUserService(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+        return newUserService(userRepository, new BirthDateIndex(1), eventPublisher);
+    }
+
+    static UserServiceImpl newUserService(UserRepository userRepository, BirthDateIndex birthDateIndex,
+                                          ApplicationEventPublisher eventPublisher) {
+        UserServiceImpl userService = new UserServiceImpl(userRepository, birthDateIndex, new EmailIndex(),
+                new NameSearchIndex(), eventPublisher, new UserWriter(userRepository, 1024, 256));
+        ReflectionTestUtils.setField(userService, "minimalAge", MINIMAL_AGE);
+        return userService;
+    }
+
+    /**
+     * Creates users {@code 0..users-1} through the batch path. On an empty in-memory store user {@code n}
+     * gets id {@code n + 1}.
+     */
+    static void populate(UserServiceImpl userService, int users) {
+        List<User> batch = new ArrayList<>(POPULATE_BATCH_SIZE);
+        for (int n = 0; n < users; n++) {
+            batch.add(newUser(n));
+            if (batch.size() == POPULATE_BATCH_SIZE) {
+                userService.createUsers(batch);
+                batch = new ArrayList<>(POPULATE_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            userService.createUsers(batch);
+        }
+    }
+
+    static User newUser(long n) {
+        // Names come from a bounded pool, like real ones, so the name index does not grow a term per user.
+        return new User(null, "user" + n + "@example.org", "First" + n % 1_000, "Last" + n % 5_000,
+                birthDateOf(n), "42 Main St", "6625550144");
+    }
+
+    /**
+     * Spreads birth dates uniformly over {@link #BIRTH_DATE_SPREAD_DAYS}, deterministically per user.
+     */
+    static LocalDate birthDateOf(long n) {
+        long mixed = (n + 1) * 0x9E3779B97F4A7C15L;
+        return FIRST_BIRTH_DATE.plusDays(Math.floorMod(mixed ^ (mixed >>> 32), BIRTH_DATE_SPREAD_DAYS));
+    }
+}
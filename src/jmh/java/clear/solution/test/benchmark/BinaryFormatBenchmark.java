@@ -0,0 +1,91 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.converter.UserProtobufCodec;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.mapper.UserMapperImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a range query result of {@code users} users in each representation the API
+ * negotiates. The Jackson formats use the object mapper configuration Spring Boot applies to JSON. Payload
+ * sizes are printed once per trial, since JMH has no metric for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class BinaryFormatBenchmark {
+    private static final TypeReference<List<UserResponseDTO>> USER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<UserResponseDTO> page;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "json" -> newObjectMapper(new JsonFactory());
+            case "cbor" -> newObjectMapper(new CBORFactory());
+            case "smile" -> newObjectMapper(new SmileFactory());
+            default -> null;
+        };
+        UserMapper userMapper = new UserMapperImpl();
+        page = new ArrayList<>(users);
+        for (int n = 0; n < users; n++) {
+            User user = BenchmarkSupport.newUser(n);
+            user.setId(n + 1L);
+            page.add(userMapper.mapToUserResponse(user));
+        }
+        encoded = encode();
+        System.out.printf("%n%s payload: %d bytes for %d users%n", format, encoded.length, users);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (objectMapper != null) {
+            return objectMapper.writeValueAsBytes(page);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        UserProtobufCodec.writeResponses(page, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> decode() throws IOException {
+        if (objectMapper != null) {
+            return objectMapper.readValue(encoded, USER_LIST);
+        }
+        return UserProtobufCodec.decodeResponses(encoded);
+    }
+
+    private static ObjectMapper newObjectMapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static clear.solution.test.benchmark.BenchmarkSupport.BIRTH_DATE_SPREAD_DAYS;
+import static clear.solution.test.benchmark.BenchmarkSupport.FIRST_BIRTH_DATE;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms16g", "-Xmx16g"})
+public class BirthDateRangeBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    private int users;
+
+    @Param({"7", "365", "3650"})
+    private int windowDays;
+
+    private UserServiceImpl userService;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository());
+        BenchmarkSupport.populate(userService, users);
+        fromDate = FIRST_BIRTH_DATE.plusDays(BIRTH_DATE_SPREAD_DAYS / 2);
+        toDate = fromDate.plusDays(windowDays);
+    }
+
+    @Benchmark
+    public List<User> findUsersByBirthDateRange() {
+        return userService.findUsersByBirthDateRange(fromDate, toDate);
+    }
+}
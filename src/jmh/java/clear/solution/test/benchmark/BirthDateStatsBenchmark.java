@@ -0,0 +1,51 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static clear.solution.test.benchmark.BenchmarkSupport.BIRTH_DATE_SPREAD_DAYS;
+import static clear.solution.test.benchmark.BenchmarkSupport.FIRST_BIRTH_DATE;
+
+/**
+ * Counting the users in a birth-date range from the Fenwick tree versus counting the materialized range
+ * query result, which is what reporting clients did before {@code /users/stats}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class BirthDateStatsBenchmark {
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"30", "3650"})
+    private int windowDays;
+
+    private UserServiceImpl userService;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository());
+        BenchmarkSupport.populate(userService, users);
+        fromDate = FIRST_BIRTH_DATE.plusDays(BIRTH_DATE_SPREAD_DAYS / 2);
+        toDate = fromDate.plusDays(windowDays);
+    }
+
+    @Benchmark
+    public long countFromCounters() {
+        return userService.countUsersByBirthDateRange(fromDate, toDate);
+    }
+
+    @Benchmark
+    public long countRangeQueryResult() {
+        return userService.findUsersByBirthDateRange(fromDate, toDate).size();
+    }
+}
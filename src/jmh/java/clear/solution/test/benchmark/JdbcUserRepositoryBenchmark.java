@@ -0,0 +1,76 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.impl.JdbcUserRepository;
+import clear.solution.test.service.UserPatch;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Updates and reads of a user store kept in H2 file mode, with write-behind and with every write (or
+ * writer batch) flushed before it returns. Updates go to the {@code hotUsers} lowest ids, so they exercise
+ * coalescing, while {@code findUserByEmail} reads across all users and mostly misses the cache. Run with
+ * {@code -t 1}, {@code -t 4}, ... to see how the writer batches absorb more callers in both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class JdbcUserRepositoryBenchmark {
+    private static final int USERS = 200_000;
+    private static final int MAX_CACHED_USERS = 20_000;
+
+    @Param({"true", "false"})
+    private boolean writeBehind;
+
+    @Param({"10000"})
+    private int hotUsers;
+
+    private Path directory;
+    private JdbcUserRepository userRepository;
+    private UserServiceImpl userService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("user-jdbc");
+        userRepository = new JdbcUserRepository("jdbc:h2:file:" + directory.resolve("users"), "sa", "", 4,
+                MAX_CACHED_USERS, 200, 1_000, 10_000, writeBehind);
+        userRepository.open();
+        userService = BenchmarkSupport.newUserService(userRepository);
+        BenchmarkSupport.populate(userService, USERS);
+        userRepository.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        userRepository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public User updateUserFields() {
+        long id = ThreadLocalRandom.current().nextInt(hotUsers) + 1;
+        UserPatch patch = new UserPatch().set(UserPatch.Field.ADDRESS, "Address " + System.nanoTime());
+        return userService.updateUserFields(id, patch);
+    }
+
+    @Benchmark
+    public User findUserByEmail() {
+        return userService.findUserByEmail("user" + ThreadLocalRandom.current().nextInt(USERS) + "@example.org");
+    }
+}
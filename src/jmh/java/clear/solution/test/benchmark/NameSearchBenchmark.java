@@ -0,0 +1,48 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.index.NameSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class NameSearchBenchmark {
+    private static final String[] FIRST_NAMES = {"Nikita", "Olena", "Andrii", "Iryna", "Taras", "Sofiia", "Dmytro",
+            "Kateryna", "Bohdan", "Mariia", "Oleksandr", "Yuliia", "Serhii", "Anastasiia", "Maksym", "Viktoriia"};
+    private static final String[] LAST_NAMES = {"Kovalenko", "Shevchenko", "Bondarenko", "Tkachenko", "Kravchenko",
+            "Melnyk", "Oliinyk", "Koval", "Polishchuk", "Lysenko", "Marchenko", "Rudenko", "Savchenko", "Moroz"};
+
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"kov", "kovalenko", "kovalenko nik", "kovalnko", "shevchnk"})
+    private String query;
+
+    private NameSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new NameSearchIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= users; id++) {
+            // A numeric suffix on some surnames keeps the dictionary from collapsing to a handful of terms.
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            if (random.nextInt(4) == 0) {
+                lastName = lastName + random.nextInt(50_000);
+            }
+            index.add(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], lastName);
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 10);
+    }
+}
@@ -0,0 +1,65 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.index.BirthDateIndex;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static clear.solution.test.benchmark.BenchmarkSupport.BIRTH_DATE_SPREAD_DAYS;
+import static clear.solution.test.benchmark.BenchmarkSupport.FIRST_BIRTH_DATE;
+
+/**
+ * Scaling curve of unpaged range queries split into birth-date chunks. The query runs inside a fork-join
+ * pool of {@code cores} threads, so the parallel scan uses exactly that many cores, and the index is built
+ * with a matching scan parallelism. {@code cores=1} is the sequential baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms16g", "-Xmx16g"})
+public class ParallelRangeBenchmark {
+    @Param({"10000000"})
+    private int users;
+
+    @Param({"365", "3650"})
+    private int windowDays;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int cores;
+
+    private UserServiceImpl userService;
+    private ForkJoinPool pool;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository(), new BirthDateIndex(cores),
+                event -> {
+                });
+        BenchmarkSupport.populate(userService, users);
+        pool = new ForkJoinPool(cores);
+        fromDate = FIRST_BIRTH_DATE.plusDays(BIRTH_DATE_SPREAD_DAYS / 2);
+        toDate = fromDate.plusDays(windowDays);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<User> findUsersByBirthDateRange() throws InterruptedException, ExecutionException {
+        // Parallel streams started from a fork-join task run in that task's pool.
+        return pool.submit(() -> userService.findUsersByBirthDateRange(fromDate, toDate)).get();
+    }
+}
@@ -0,0 +1,91 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.impl.DurableUserRepository;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup recovery: loading a snapshot of {@code users} users and replaying a log tail of
+ * {@code tailOperations} updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class RecoveryBenchmark {
+    private static final long SNAPSHOT_INTERVAL_MS = Long.MAX_VALUE / 2;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000000", "10000000"})
+    private int users;
+
+    @Param({"100000"})
+    private int tailOperations;
+
+    private Path directory;
+    private DurableUserRepository recovered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("user-recovery");
+        DurableUserRepository repository = new DurableUserRepository(new InMemoryUserRepository(),
+                directory.toString(), SNAPSHOT_INTERVAL_MS);
+        repository.recover();
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        for (int created = 0; created < users; created += batch.size()) {
+            batch.clear();
+            long firstId = repository.allocateIds(Math.min(BATCH_SIZE, users - created));
+            for (long id = firstId; batch.size() < Math.min(BATCH_SIZE, users - created); id++) {
+                batch.add(new User(id, "user" + id + "@example.org", "First" + id, "Last" + id,
+                        LocalDate.of(1950, 1, 1).plusDays(id % 20_000), "42 Main St", "6625550144"));
+            }
+            repository.saveAll(batch);
+        }
+        repository.snapshot();
+        for (long id = 1; id <= tailOperations; id++) {
+            repository.update(id, user -> {
+                user.setAddress("57 Main St");
+                return user;
+            });
+        }
+        repository.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeRecovered() throws IOException {
+        if (recovered != null) {
+            recovered.close();
+            recovered = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public DurableUserRepository recover() throws IOException {
+        recovered = new DurableUserRepository(new InMemoryUserRepository(), directory.toString(),
+                SNAPSHOT_INTERVAL_MS);
+        recovered.recover();
+        return recovered;
+    }
+}
@@ -0,0 +1,73 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.UserRepository;
+import clear.solution.test.repository.impl.ColumnarUserRepository;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads {@code users} users into each storage engine and reports the retained heap and direct memory
+ * as auxiliary counters. Run with {@code -prof gc} to compare allocation and GC time, or add
+ * {@code -jvmArgsAppend -Xlog:gc} for individual pauses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g", "-XX:MaxDirectMemorySize=8g"})
+public class StorageFootprintBenchmark {
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"memory", "columnar"})
+    private String engine;
+
+    @Param({"1000000", "10000000"})
+    private int users;
+
+    private UserRepository retained;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapMegabytes;
+        public long directMegabytes;
+    }
+
+    @TearDown(Level.Iteration)
+    public void release() {
+        retained = null;
+    }
+
+    @Benchmark
+    public UserRepository load(Footprint footprint) {
+        UserRepository repository = "columnar".equals(engine) ? new ColumnarUserRepository() : new InMemoryUserRepository();
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= users; id++) {
+            batch.add(new User(id, "user" + id + "@example.org", "First" + id, "Last" + id,
+                    LocalDate.of(1950, 1, 1).plusDays(id % 20_000), "42 Main St", "6625550144"));
+            if (batch.size() == BATCH_SIZE) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        repository.saveAll(batch);
+        retained = repository;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        footprint.heapMegabytes = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        footprint.directMegabytes = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum() >> 20;
+        return repository;
+    }
+}
@@ -0,0 +1,85 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.changelog.UserChangeLog;
+import clear.solution.test.changelog.UserChangeLog.ChangeBatch;
+import clear.solution.test.entity.User;
+import clear.solution.test.event.UserChangedEvent;
+import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.UserPatch;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput ceiling of the change log: raw appends, appends with a consumer reading concurrently, and
+ * {@code updateUserFields} with and without the log listening. Run with {@code -t} to vary the number of
+ * writer threads for the ungrouped benchmarks; {@code changeLogEnabled} only affects
+ * {@code updateUserFields}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class UserChangeLogBenchmark {
+    private static final int USERS = 100_000;
+    private static final int READ_BATCH_SIZE = 256;
+
+    @Param({"true", "false"})
+    private boolean changeLogEnabled;
+
+    private UserChangeLog changeLog;
+    private UserServiceImpl userService;
+    private UserChangedEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        changeLog = new UserChangeLog(65_536, 50, new UserMapperImpl());
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository(), published -> {
+            if (changeLogEnabled && published instanceof UserChangedEvent changedEvent) {
+                changeLog.onUserChanged(changedEvent);
+            }
+        });
+        BenchmarkSupport.populate(userService, USERS);
+        User user = BenchmarkSupport.newUser(0);
+        user.setId(1L);
+        event = new UserChangedEvent(UserChangedEvent.Type.UPDATED, 1L, user.getBirthDate(), user);
+    }
+
+    @Benchmark
+    public void append() {
+        changeLog.onUserChanged(event);
+    }
+
+    @Benchmark
+    @Group("appendWithReader")
+    @GroupThreads(3)
+    public void appendWhileReading() {
+        changeLog.onUserChanged(event);
+    }
+
+    @Benchmark
+    @Group("appendWithReader")
+    @GroupThreads(1)
+    public ChangeBatch read(ReaderCursor cursor) {
+        ChangeBatch batch = changeLog.read(cursor.nextSequence, READ_BATCH_SIZE);
+        cursor.nextSequence = batch.nextSequence();
+        return batch;
+    }
+
+    @Benchmark
+    public User updateUserFields() {
+        long id = ThreadLocalRandom.current().nextInt(USERS) + 1;
+        UserPatch patch = new UserPatch().set(UserPatch.Field.ADDRESS, "Address " + id);
+        return userService.updateUserFields(id, patch);
+    }
+
+    @State(Scope.Thread)
+    public static class ReaderCursor {
+        private long nextSequence = 1;
+    }
+}
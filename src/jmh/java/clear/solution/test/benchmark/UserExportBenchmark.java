@@ -0,0 +1,84 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.export.UserExportCompression;
+import clear.solution.test.export.UserExportFormat;
+import clear.solution.test.export.UserExporter;
+import clear.solution.test.export.UserExporter.ExportResult;
+import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import clear.solution.test.service.impl.UserWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a full export of 1M users into a channel that discards its input. Each shot is one export and
+ * {@code exportedMegabytes} is its output size, so output MB/s is that divided by the shot time. The
+ * {@code compression=NONE} rows give the uncompressed size and the cost of encoding alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class UserExportBenchmark {
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"NDJSON", "CSV"})
+    private UserExportFormat format;
+
+    @Param({"NONE", "GZIP", "ZSTD"})
+    private UserExportCompression compression;
+
+    private UserExporter userExporter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        UserServiceImpl userService = BenchmarkSupport.newUserService(userRepository);
+        BenchmarkSupport.populate(userService, users);
+        userExporter = new UserExporter(userRepository, new UserWriter(userRepository, 1024, 256),
+                new UserMapperImpl(), Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build());
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        public long exportedMegabytes;
+    }
+
+    @Benchmark
+    public ExportResult export(Output output) throws IOException {
+        ExportResult result = userExporter.export(new DiscardingChannel(), format, compression);
+        output.exportedMegabytes = result.bytes() / 1_000_000;
+        return result;
+    }
+
+    private static final class DiscardingChannel implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) {
+            int written = source.remaining();
+            source.position(source.limit());
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.cache.UserJsonCache;
+import clear.solution.test.entity.User;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static clear.solution.test.benchmark.BenchmarkSupport.BIRTH_DATE_SPREAD_DAYS;
+import static clear.solution.test.benchmark.BenchmarkSupport.FIRST_BIRTH_DATE;
+
+/**
+ * Cost of rendering a wide range query result as a JSON array: mapping and serializing every user with
+ * Jackson, as the controller does by default, against concatenating the fragments held by a warm
+ * {@link UserJsonCache}. The range lookup itself is done once in setup and is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class UserJsonCacheBenchmark {
+    @Param({"1000000"})
+    private int users;
+
+    @Param({"365", "3650"})
+    private int windowDays;
+
+    private UserMapper userMapper;
+    private ObjectMapper objectMapper;
+    private UserJsonCache userJsonCache;
+    private List<User> range;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserServiceImpl userService = BenchmarkSupport.newUserService(new InMemoryUserRepository());
+        BenchmarkSupport.populate(userService, users);
+        LocalDate fromDate = FIRST_BIRTH_DATE.plusDays(BIRTH_DATE_SPREAD_DAYS / 2);
+        range = userService.findUsersByBirthDateRange(fromDate, fromDate.plusDays(windowDays));
+        userMapper = new UserMapperImpl();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        userJsonCache = new UserJsonCache(true, Math.max(1, range.size()), userMapper, objectMapper);
+        range.forEach(userJsonCache::toJson);
+    }
+
+    @Benchmark
+    public byte[] serializeWithJackson() throws IOException {
+        return objectMapper.writeValueAsBytes(range.stream().map(userMapper::mapToUserResponse).toList());
+    }
+
+    @Benchmark
+    public byte[] assembleCachedFragments() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write('[');
+        for (int i = 0; i < range.size(); i++) {
+            if (i > 0) {
+                outputStream.write(',');
+            }
+            outputStream.write(userJsonCache.toJson(range.get(i)));
+        }
+        outputStream.write(']');
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,83 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.mapper.UserMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-user work the controller does around the service: MapStruct mapping and Jackson
+ * (de)serialization, with the object mapper configured the way Spring Boot configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class UserSerializationBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    private UserMapper userMapper;
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserRequestDTO request;
+    private UserResponseDTO response;
+    private List<UserResponseDTO> page;
+    private byte[] requestJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        userMapper = new UserMapperImpl();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        user = BenchmarkSupport.newUser(0);
+        user.setId(1L);
+        request = new UserRequestDTO(user.getEmail(), user.getFirstName(), user.getLastName(), user.getBirthDate(),
+                user.getAddress(), user.getPhoneNumber());
+        response = userMapper.mapToUserResponse(user);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int n = 0; n < PAGE_SIZE; n++) {
+            User pageUser = BenchmarkSupport.newUser(n);
+            pageUser.setId(n + 1L);
+            page.add(userMapper.mapToUserResponse(pageUser));
+        }
+        requestJson = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public UserResponseDTO mapToUserResponse() {
+        return userMapper.mapToUserResponse(user);
+    }
+
+    @Benchmark
+    public User mapToUser() {
+        return userMapper.mapToUser(request);
+    }
+
+    @Benchmark
+    public byte[] writeUserResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeUserResponsePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public UserRequestDTO readUserRequest() throws IOException {
+        return objectMapper.readValue(requestJson, UserRequestDTO.class);
+    }
+}
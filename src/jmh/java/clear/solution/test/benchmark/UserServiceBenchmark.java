@@ -0,0 +1,90 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.UserPatch;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of the write paths of {@link UserServiceImpl} against a store of {@code users}
+ * users. Users created by {@link #createUser()} are deleted after each iteration, so the store size stays
+ * at {@code users} from one iteration to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms16g", "-Xmx16g"})
+public class UserServiceBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    private int users;
+
+    private UserServiceImpl userService;
+    private SplittableRandom random;
+    private List<Long> createdIds;
+    private long nextUser;
+    private long revision;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository());
+        BenchmarkSupport.populate(userService, users);
+        random = new SplittableRandom(42);
+        createdIds = new ArrayList<>();
+        nextUser = users;
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreatedUsers() {
+        createdIds.forEach(userService::deletedUser);
+        createdIds.clear();
+    }
+
+    @Benchmark
+    public User createUser() {
+        User user = userService.createUser(BenchmarkSupport.newUser(nextUser++));
+        createdIds.add(user.getId());
+        return user;
+    }
+
+    @Benchmark
+    public User updateUser() {
+        long n = random.nextInt(users);
+        User request = BenchmarkSupport.newUser(n);
+        request.setAddress("Revision " + revision++);
+        return userService.updateUser(n + 1, request);
+    }
+
+    @Benchmark
+    public User updateUserFields() {
+        long n = random.nextInt(users);
+        UserPatch patch = new UserPatch().set(UserPatch.Field.ADDRESS, "Revision " + revision++);
+        return userService.updateUserFields(n + 1, patch);
+    }
+
+    @Benchmark
+    public void deletedUser(DeleteTarget target) {
+        userService.deletedUser(target.id);
+    }
+
+    /**
+     * Creates the user that the next {@link #deletedUser(DeleteTarget)} call removes. Per-invocation setup
+     * adds some timing noise, but the operations measured here take microseconds, well above it.
+     */
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        private long id;
+
+        @Setup(Level.Invocation)
+        public void createUser(UserServiceBenchmark benchmark) {
+            id = benchmark.userService.createUser(BenchmarkSupport.newUser(benchmark.nextUser++)).getId();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package clear.solution.test.benchmark;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.UserPatch;
+import clear.solution.test.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the single-writer mutation loop. {@code updateUserFields} measures write throughput with
+ * as many callers as JMH threads; run it with {@code -t 1}, {@code -t 4}, ... to see how batching absorbs
+ * more callers. The {@code readWhileWriting} group keeps one writer busy next to three readers of short
+ * birth-date ranges and three email lookups; run it with {@code -tg 1,N,N} to follow read scaling with
+ * cores while the writer runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class UserWriterBenchmark {
+    private static final int USERS = 1_000_000;
+    private static final int WINDOW_DAYS = 7;
+
+    private UserServiceImpl userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userService = BenchmarkSupport.newUserService(new InMemoryUserRepository());
+        BenchmarkSupport.populate(userService, USERS);
+    }
+
+    @Benchmark
+    public User updateUserFields() {
+        return update();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public User write() {
+        return update();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public List<User> readRange() {
+        LocalDate fromDate = BenchmarkSupport.FIRST_BIRTH_DATE.plusDays(
+                ThreadLocalRandom.current().nextInt(BenchmarkSupport.BIRTH_DATE_SPREAD_DAYS - WINDOW_DAYS));
+        return userService.findUsersByBirthDateRange(fromDate, fromDate.plusDays(WINDOW_DAYS));
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public User readByEmail() {
+        return userService.findUserByEmail("user" + ThreadLocalRandom.current().nextInt(USERS) + "@example.org");
+    }
+
+    private User update() {
+        long id = ThreadLocalRandom.current().nextInt(USERS) + 1;
+        UserPatch patch = new UserPatch().set(UserPatch.Field.ADDRESS, "Address " + System.nanoTime());
+        return userService.updateUserFields(id, patch);
+    }
+}
@@ -0,0 +1,71 @@
+package clear.solution.test.loadtest;
+
+import clear.solution.test.ClearSolutionTestApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the {@code /users} API. Starts the application on a random local port, unless
+ * {@code --target-url} points at one that is already running, preloads {@code --users} users and then
+ * sends the {@code --mix} of requests at {@code --rate} requests per second: first for {@code --warmup}
+ * seconds, which are not reported, then for {@code --duration} seconds. The result is printed and written
+ * to {@code --report}; see {@link LoadTestOptions} for the defaults.
+ */
+public final class LoadTest {
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long WARMUP_SEED = 1L;
+    private static final long MEASUREMENT_SEED = 2L;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext application = null;
+        String target = options.targetUrl();
+        if (target == null) {
+            List<String> applicationArgs = new ArrayList<>(options.applicationArgs());
+            applicationArgs.add("--server.port=0");
+            application = SpringApplication.run(ClearSolutionTestApplication.class,
+                    applicationArgs.toArray(String[]::new));
+            target = "http://localhost:" + application.getEnvironment().getRequiredProperty("local.server.port");
+        }
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(options.clientThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "load-test-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .executor(clientExecutor)
+                .build();
+        try {
+            UserTraffic traffic = new UserTraffic(URI.create(target), options.rangeDays());
+            traffic.preload(client, options.users());
+            OpenLoopDriver driver = new OpenLoopDriver(client, traffic, options.mix(), options.rate());
+            if (!options.warmup().isZero()) {
+                driver.run(options.warmup(), WARMUP_SEED);
+            }
+            OpenLoopDriver.Run run = driver.run(options.duration(), MEASUREMENT_SEED);
+            LoadTestReport.write(options.report(), options, target, run);
+            System.out.printf("%d requests at %d/s against %s, %d live users at the end, send lag up to %.2f ms%n",
+                    run.sent(), options.rate(), target, traffic.liveUsers(), run.maxSendLagMicros() / 1_000.0);
+            System.out.print(LoadTestReport.summary(run));
+            System.out.println("Report written to " + options.report().toAbsolutePath());
+        } finally {
+            clientExecutor.shutdownNow();
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package clear.solution.test.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a load test run, parsed from {@code --name=value} arguments. Arguments that are not load test
+ * options, such as {@code --user.storage.engine=jdbc} or {@code --spring.profiles.active=reactive}, are
+ * passed on to the application under test.
+ */
+record LoadTestOptions(int rate,
+                       Duration warmup,
+                       Duration duration,
+                       int users,
+                       Map<Operation, Integer> mix,
+                       int rangeDays,
+                       int clientThreads,
+                       String targetUrl,
+                       Path report,
+                       List<String> applicationArgs) {
+    private static final String DEFAULT_MIX = "create:10,put:10,patch:30,delete:5,range:45";
+
+    static LoadTestOptions parse(String... args) {
+        int rate = 1_000;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        int users = 100_000;
+        Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+        int rangeDays = 30;
+        int clientThreads = 4;
+        String targetUrl = null;
+        Path report = Path.of("target", "loadtest-report.json");
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "rate" -> rate = Integer.parseInt(value);
+                case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "users" -> users = Integer.parseInt(value);
+                case "mix" -> mix = parseMix(value);
+                case "range-days" -> rangeDays = Integer.parseInt(value);
+                case "client-threads" -> clientThreads = Integer.parseInt(value);
+                case "target-url" -> targetUrl = value.isBlank() ? null : value;
+                case "report" -> report = Path.of(value);
+                default -> applicationArgs.add(arg);
+            }
+        }
+        if (rate < 1 || duration.isZero() || warmup.isNegative() || users < 1 || rangeDays < 1 || clientThreads < 1) {
+            throw new IllegalArgumentException("rate, duration, users, range-days and client-threads must be positive");
+        }
+        return new LoadTestOptions(rate, warmup, duration, users, mix, rangeDays, clientThreads, targetUrl, report,
+                List.copyOf(applicationArgs));
+    }
+
+    /**
+     * Parses weights such as {@code create:10,range:90}. Operations that are not listed are not sent.
+     */
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in the mix but got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + entry);
+            }
+            mix.put(Operation.fromName(parts[0].trim()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("The mix must have at least one positive weight");
+        }
+        return mix;
+    }
+}
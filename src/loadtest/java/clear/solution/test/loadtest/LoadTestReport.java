@@ -0,0 +1,123 @@
+package clear.solution.test.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes the result of a measured run as JSON, one entry per operation plus {@code all}, so runs with
+ * different settings or on different commits can be compared side by side. Each entry also carries its
+ * full latency histogram in HdrHistogram's compressed, Base64 encoded form, for tools that merge or plot
+ * histograms.
+ */
+final class LoadTestReport {
+    private static final String[] PERCENTILES = {"50", "90", "99", "99.9"};
+    private static final String ALL = "all";
+
+    private LoadTestReport() {
+    }
+
+    static void write(Path file, LoadTestOptions options, String target, OpenLoopDriver.Run run) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", target);
+        report.put("applicationArgs", options.applicationArgs());
+        report.put("rate", options.rate());
+        report.put("warmupSeconds", options.warmup().toSeconds());
+        report.put("durationSeconds", options.duration().toSeconds());
+        report.put("preloadedUsers", options.users());
+        report.put("rangeDays", options.rangeDays());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix().forEach((operation, weight) -> mix.put(operation.label(), weight));
+        report.put("mix", mix);
+        report.put("sent", run.sent());
+        report.put("unanswered", run.unanswered());
+        report.put("elapsedSeconds", run.elapsedNanos() / 1e9);
+        report.put("maxSendLagMicros", run.maxSendLagMicros());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        entries(run).forEach((name, entry) -> operations.put(name, entry.toJson()));
+        report.put("operations", operations);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    /**
+     * One line per operation with its throughput and latency percentiles in milliseconds.
+     */
+    static String summary(OpenLoopDriver.Run run) {
+        StringBuilder summary = new StringBuilder(String.format("%-8s %10s %10s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors"));
+        entries(run).forEach((name, entry) -> summary.append(String.format(
+                "%-8s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9d%n", name, entry.latencies().getTotalCount(),
+                entry.throughputPerSecond(), millis(entry.latencies().getValueAtPercentile(50.0)),
+                millis(entry.latencies().getValueAtPercentile(99.0)),
+                millis(entry.latencies().getValueAtPercentile(99.9)), millis(entry.latencies().getMaxValue()),
+                entry.rejected() + entry.failed())));
+        return summary.toString();
+    }
+
+    private static Map<String, Entry> entries(OpenLoopDriver.Run run) {
+        double elapsedSeconds = run.elapsedNanos() / 1e9;
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        long succeeded = 0;
+        long notFound = 0;
+        long rejected = 0;
+        long failed = 0;
+        for (Map.Entry<Operation, OperationStats> operation : run.stats().entrySet()) {
+            OperationStats stats = operation.getValue();
+            all.add(stats.latencies());
+            succeeded += stats.succeeded();
+            notFound += stats.notFound();
+            rejected += stats.rejected();
+            failed += stats.failed();
+            entries.put(operation.getKey().label(), new Entry(stats.latencies(),
+                    stats.latencies().getTotalCount() / elapsedSeconds, stats.succeeded(), stats.notFound(),
+                    stats.rejected(), stats.failed()));
+        }
+        entries.put(ALL, new Entry(all, all.getTotalCount() / elapsedSeconds, succeeded, notFound, rejected, failed));
+        return entries;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private record Entry(Histogram latencies, double throughputPerSecond, long succeeded, long notFound,
+                         long rejected, long failed) {
+        Map<String, Object> toJson() {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", latencies.getTotalCount());
+            entry.put("throughputPerSecond", throughputPerSecond);
+            entry.put("succeeded", succeeded);
+            entry.put("notFound", notFound);
+            entry.put("rejected", rejected);
+            entry.put("failed", failed);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            for (String percentile : PERCENTILES) {
+                latency.put("p" + percentile, latencies.getValueAtPercentile(Double.parseDouble(percentile)));
+            }
+            latency.put("max", latencies.getMaxValue());
+            latency.put("mean", latencies.getMean());
+            entry.put("latencyMicros", latency);
+            entry.put("histogram", encode(latencies));
+            return entry;
+        }
+
+        private static String encode(Histogram latencies) {
+            ByteBuffer buffer = ByteBuffer.allocate(latencies.getNeededByteBufferCapacity());
+            int length = latencies.encodeIntoCompressedByteBuffer(buffer);
+            return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+        }
+    }
+}
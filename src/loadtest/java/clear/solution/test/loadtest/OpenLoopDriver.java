@@ -0,0 +1,116 @@
+package clear.solution.test.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate, whether or not earlier requests have completed (an open workload model).
+ * Request {@code i} is due at {@code start + i / rate}; its latency is measured from that time. A request
+ * the driver sends late, because the system or the driver itself fell behind, is charged with the delay
+ * instead of hiding it, which avoids coordinated omission.
+ */
+final class OpenLoopDriver {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient client;
+    private final UserTraffic traffic;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int rate;
+
+    OpenLoopDriver(HttpClient client, UserTraffic traffic, Map<Operation, Integer> mix, int rate) {
+        this.client = client;
+        this.traffic = traffic;
+        this.rate = rate;
+        Map<Operation, Integer> weighted = new EnumMap<>(Operation.class);
+        mix.forEach((operation, weight) -> {
+            if (weight > 0) {
+                weighted.put(operation, weight);
+            }
+        });
+        this.operations = weighted.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weighted.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Drives traffic for {@code duration} and waits for the outstanding responses.
+     */
+    Run run(Duration duration, long seed) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+        Random random = new Random(seed);
+        AtomicInteger inFlight = new AtomicInteger();
+        long maxLagNanos = 0;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+        while (true) {
+            long due = start + (long) (sent * 1e9 / rate);
+            if (due - end >= 0) {
+                break;
+            }
+            long now = System.nanoTime();
+            while (due - now > 0) {
+                LockSupport.parkNanos(due - now);
+                now = System.nanoTime();
+            }
+            maxLagNanos = Math.max(maxLagNanos, now - due);
+            Operation operation = next(random);
+            OperationStats operationStats = stats.get(operation);
+            inFlight.incrementAndGet();
+            client.sendAsync(traffic.request(operation, random), HttpResponse.BodyHandlers.ofByteArray())
+                    .orTimeout(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS)
+                    .whenComplete((response, failure) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+                        if (failure != null) {
+                            operationStats.recordFailure(latencyMicros);
+                        } else {
+                            operationStats.record(latencyMicros, response.statusCode());
+                            traffic.onResponse(operation, response);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+            sent++;
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return new Run(stats, sent, elapsedNanos, TimeUnit.NANOSECONDS.toMicros(maxLagNanos), inFlight.get());
+    }
+
+    private Operation next(Random random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /**
+     * Outcome of one run. {@code elapsedNanos} runs until the last response arrived, and
+     * {@code maxSendLagMicros} is how late the driver sent its most delayed request; a large value means the
+     * load generator could not keep up with the requested rate on its own.
+     */
+    record Run(Map<Operation, OperationStats> stats, long sent, long elapsedNanos, long maxSendLagMicros,
+               int unanswered) {
+    }
+}
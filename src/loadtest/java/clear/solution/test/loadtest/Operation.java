@@ -0,0 +1,27 @@
+package clear.solution.test.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The requests a load test can mix, named in {@code --mix} by their lower-case name.
+ */
+enum Operation {
+    CREATE,
+    PUT,
+    PATCH,
+    DELETE,
+    RANGE;
+
+    static Operation fromName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation " + name + ", expected one of create, put, "
+                    + "patch, delete and range", e);
+        }
+    }
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,59 @@
+package clear.solution.test.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation during a run. Latencies are recorded in microseconds from the
+ * time the request was scheduled to be sent, not from the time it was actually sent.
+ */
+final class OperationStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    void record(long latencyMicros, int statusCode) {
+        latencies.recordValue(latencyMicros);
+        if (statusCode >= 200 && statusCode < 300) {
+            succeeded.increment();
+        } else if (statusCode == 404) {
+            notFound.increment();
+        } else {
+            rejected.increment();
+        }
+    }
+
+    /**
+     * Records a request that got no response, e.g. because it timed out or the connection failed.
+     */
+    void recordFailure(long latencyMicros) {
+        latencies.recordValue(latencyMicros);
+        failed.increment();
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long notFound() {
+        return notFound.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+}
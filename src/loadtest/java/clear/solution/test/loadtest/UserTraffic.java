@@ -0,0 +1,142 @@
+package clear.solution.test.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the requests of each {@link Operation} against {@code /users} and keeps track of the ids of the
+ * users that exist, so updates and deletes mostly hit live users. An update may still race with a delete
+ * of the same user; that shows up as a 404 in the report.
+ */
+final class UserTraffic {
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1940, 1, 1);
+    private static final int BIRTH_DATE_SPREAD_DAYS = 365 * 60;
+    private static final int PRELOAD_BATCH_SIZE = 1_000;
+    private static final String JSON = "application/json";
+
+    private final URI usersUri;
+    private final int rangeDays;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String emailPrefix = "load" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private long[] ids = new long[1024];
+    private int idCount;
+
+    UserTraffic(URI baseUri, int rangeDays) {
+        this.usersUri = baseUri.resolve("/users");
+        this.rangeDays = rangeDays;
+    }
+
+    /**
+     * Creates {@code users} users through the batch endpoint before the measured traffic starts.
+     */
+    void preload(HttpClient client, int users) throws IOException, InterruptedException {
+        for (int created = 0; created < users; created += PRELOAD_BATCH_SIZE) {
+            StringJoiner batch = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < Math.min(PRELOAD_BATCH_SIZE, users - created); i++) {
+                batch.add(newUserJson(new Random(created + i)));
+            }
+            HttpResponse<byte[]> response = client.send(post(URI.create(usersUri + "/batch"), batch.toString()),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Preloading users failed with status " + response.statusCode());
+            }
+            for (JsonNode item : objectMapper.readTree(response.body())) {
+                JsonNode user = item.get("user");
+                if (user != null && !user.isNull()) {
+                    addId(user.get("id").asLong());
+                }
+            }
+        }
+    }
+
+    HttpRequest request(Operation operation, Random random) {
+        return switch (operation) {
+            case CREATE -> post(usersUri, newUserJson(random));
+            case PUT -> HttpRequest.newBuilder(userUri(randomId(random)))
+                    .header("Content-Type", JSON)
+                    .PUT(HttpRequest.BodyPublishers.ofString(newUserJson(random)))
+                    .build();
+            case PATCH -> HttpRequest.newBuilder(userUri(randomId(random)))
+                    .header("Content-Type", JSON)
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                            "{\"address\":\"" + random.nextInt(1_000) + " Load St\"}"))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(userUri(removeRandomId(random))).DELETE().build();
+            case RANGE -> {
+                LocalDate fromDate = FIRST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATE_SPREAD_DAYS - rangeDays));
+                yield HttpRequest.newBuilder(URI.create(usersUri + "?fromDate=" + fromDate
+                        + "&toDate=" + fromDate.plusDays(rangeDays))).GET().build();
+            }
+        };
+    }
+
+    /**
+     * Remembers the id of a created user, so later updates and deletes can pick it.
+     */
+    void onResponse(Operation operation, HttpResponse<byte[]> response) {
+        if (operation == Operation.CREATE && response.statusCode() == 200) {
+            try {
+                addId(objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (IOException e) {
+                throw new IllegalStateException("Unexpected create response", e);
+            }
+        }
+    }
+
+    synchronized int liveUsers() {
+        return idCount;
+    }
+
+    private String newUserJson(Random random) {
+        long n = emailSequence.incrementAndGet();
+        return "{\"email\":\"" + emailPrefix + n + "@example.org\",\"firstName\":\"Load" + n
+                + "\",\"lastName\":\"User\",\"birthDate\":\""
+                + FIRST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATE_SPREAD_DAYS))
+                + "\",\"address\":\"42 Main St\",\"phoneNumber\":\"6625550144\"}";
+    }
+
+    private URI userUri(long id) {
+        return URI.create(usersUri + "/" + id);
+    }
+
+    private HttpRequest post(URI uri, String json) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private synchronized void addId(long id) {
+        if (idCount == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[idCount++] = id;
+    }
+
+    // With no live users left, requests go to id 0 and are answered with 404.
+    private synchronized long randomId(Random random) {
+        return idCount == 0 ? 0 : ids[random.nextInt(idCount)];
+    }
+
+    private synchronized long removeRandomId(Random random) {
+        if (idCount == 0) {
+            return 0;
+        }
+        int index = random.nextInt(idCount);
+        long id = ids[index];
+        ids[index] = ids[--idCount];
+        return id;
+    }
+}
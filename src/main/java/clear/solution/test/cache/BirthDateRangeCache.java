@@ -0,0 +1,107 @@
+package clear.solution.test.cache;
+
+import clear.solution.test.dto.RangeCacheStatsDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of mapped birth-date range results, keyed by {@code (fromDate, toDate)}.
+ * A user change only drops the entries whose range contains that user's birth date.
+ * <p>
+ * Results are loaded outside the lock. Every invalidation bumps {@code version}, and a loaded result is
+ * only stored when no invalidation happened while it was being computed, so a slow reader can never put
+ * back a result that misses a concurrent write.
+ */
+@Component
+public class BirthDateRangeCache {
+    private final int maxEntries;
+    private final LinkedHashMap<RangeKey, List<UserResponseDTO>> entries;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public BirthDateRangeCache(@Value("${user.cache.range.max-entries:256}") int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("user.cache.range.max-entries must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RangeKey, List<UserResponseDTO>> eldest) {
+                if (size() > BirthDateRangeCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<UserResponseDTO> get(LocalDate fromDate, LocalDate toDate, Supplier<List<UserResponseDTO>> loader) {
+        RangeKey key = new RangeKey(fromDate, toDate);
+        long loadVersion;
+        synchronized (this) {
+            List<UserResponseDTO> cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadVersion = version;
+        }
+        List<UserResponseDTO> loaded = List.copyOf(loader.get());
+        synchronized (this) {
+            if (maxEntries > 0 && version == loadVersion) {
+                entries.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.birthDate());
+    }
+
+    public synchronized void invalidate(LocalDate birthDate) {
+        version++;
+        Iterator<RangeKey> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().contains(birthDate)) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every entry. The statistics keep counting, as the metrics they back must never go down.
+     */
+    public synchronized void clear() {
+        version++;
+        entries.clear();
+    }
+
+    public synchronized RangeCacheStatsDTO stats() {
+        return new RangeCacheStatsDTO(hits, misses, evictions, invalidations, entries.size(), maxEntries);
+    }
+
+    private record RangeKey(LocalDate fromDate, LocalDate toDate) {
+
+        boolean contains(LocalDate birthDate) {
+            return birthDate.isAfter(fromDate) && birthDate.isBefore(toDate);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package clear.solution.test.cache;
+
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.event.UserChangedEvent;
+import clear.solution.test.mapper.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user cache of the serialized {@link UserResponseDTO} JSON, so responses for unchanged users can be
+ * assembled from byte fragments instead of mapping and serializing every user again.
+ * <p>
+ * Every entry keeps the user instance it was rendered from. Stored users are never changed in place, so a
+ * lookup with that same instance hits without comparing anything; a store that materializes a new instance
+ * on every read falls back to comparing the users. Either way an entry rendered from an older version of a
+ * user is never served, even if it was written by a reader that raced with an update.
+ * {@link UserChangedEvent}s only evict entries, to release memory early.
+ * <p>
+ * At most {@code user.cache.json.max-entries} users are cached; a full cache drops an arbitrary entry for
+ * each new one, which keeps hits free of any shared recency bookkeeping.
+ */
+@Component
+public class UserJsonCache {
+    private final boolean enabled;
+    private final int maxEntries;
+    private final UserMapper userMapper;
+    private final ObjectWriter userWriter;
+    private final Map<Long, CachedJson> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Guarded by this.
+    private Iterator<Long> evictionCursor = entries.keySet().iterator();
+
+    public UserJsonCache(@Value("${user.cache.json.enabled:false}") boolean enabled,
+                         @Value("${user.cache.json.max-entries:100000}") int maxEntries,
+                         UserMapper userMapper, ObjectMapper objectMapper) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("user.cache.json.max-entries must be at least 1");
+        }
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.userMapper = userMapper;
+        this.userWriter = objectMapper.writerFor(UserResponseDTO.class);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public byte[] toJson(User user) {
+        if (!enabled) {
+            return serialize(user);
+        }
+        CachedJson cached = entries.get(user.getId());
+        if (cached != null && (cached.user() == user || cached.user().equals(user))) {
+            hits.increment();
+            return cached.json();
+        }
+        misses.increment();
+        byte[] json = serialize(user);
+        if (entries.put(user.getId(), new CachedJson(user, json)) == null && entries.size() > maxEntries) {
+            evictOne(user.getId());
+        }
+        return json;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            entries.remove(event.userId());
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops the next entry after the previously dropped one, so evictions sweep the table instead of
+     * rescanning the bins emptied by earlier ones.
+     */
+    private synchronized void evictOne(Long keptId) {
+        for (int scanned = 0; scanned <= entries.size(); scanned++) {
+            if (!evictionCursor.hasNext()) {
+                evictionCursor = entries.keySet().iterator();
+                if (!evictionCursor.hasNext()) {
+                    return;
+                }
+            }
+            if (!evictionCursor.next().equals(keptId)) {
+                evictionCursor.remove();
+                evictions.increment();
+                return;
+            }
+        }
+    }
+
+    private byte[] serialize(User user) {
+        try {
+            return userWriter.writeValueAsBytes(userMapper.mapToUserResponse(user));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CachedJson(User user, byte[] json) {
+    }
+}
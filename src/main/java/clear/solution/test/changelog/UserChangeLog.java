@@ -0,0 +1,145 @@
+package clear.solution.test.changelog;
+
+import clear.solution.test.dto.UserChangeDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.event.UserChangedEvent;
+import clear.solution.test.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer of the latest user changes, numbered by a sequence that starts at 1 when the
+ * application starts.
+ * <p>
+ * Because the sequence restarts, event ids handed to clients carry a random epoch chosen at startup as well.
+ * A client resuming from an id of another epoch is read as truncated instead of silently continuing with
+ * unrelated changes once the new sequence has caught up with its old one.
+ * <p>
+ * Writers claim a sequence with one atomic increment and store the change in its slot, overwriting the
+ * change one lap behind. Readers never lock and never hold up writers: they read slots from their own
+ * cursor, stop at a slot that has not been written yet, and learn from {@link ChangeBatch#truncated()}
+ * when they fell more than a lap behind.
+ */
+@Component
+public class UserChangeLog {
+    private final UserMapper userMapper;
+    private final AtomicReferenceArray<UserChangeDTO> slots;
+    private final int mask;
+    private final Duration pollInterval;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    public UserChangeLog(@Value("${user.changes.capacity:65536}") int capacity,
+                         @Value("${user.changes.poll-interval-ms:50}") long pollIntervalMillis,
+                         UserMapper userMapper) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Change log capacity must be between 1 and 2^30");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.pollInterval = Duration.ofMillis(pollIntervalMillis);
+        this.userMapper = userMapper;
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        // Mapped before a sequence is claimed, so a failure cannot leave a hole that stalls readers.
+        UserResponseDTO user = event.type() == UserChangedEvent.Type.DELETED || event.user() == null
+                ? null
+                : userMapper.mapToUserResponse(event.user());
+        long sequence = lastSequence.incrementAndGet();
+        UserChangeDTO change = new UserChangeDTO(sequence, event.type(), event.userId(), Instant.now(), user);
+        // A writer that stalled for a whole lap must not overwrite the newer change in its slot.
+        slots.accumulateAndGet(index(sequence), change,
+                (current, next) -> current != null && current.getSequence() > next.getSequence() ? current : next);
+    }
+
+    /**
+     * Reads up to {@code maxChanges} changes starting at {@code fromSequence}. When that sequence has been
+     * overwritten, or lies ahead of the log because the application restarted, the batch starts at the
+     * oldest retained change instead and is marked as truncated.
+     */
+    public ChangeBatch read(long fromSequence, int maxChanges) {
+        long last = lastSequence.get();
+        long oldest = Math.max(1, last - slots.length() + 1);
+        boolean truncated = (fromSequence < oldest && oldest > 1) || fromSequence > last + 1;
+        long sequence = truncated ? oldest : Math.max(1, fromSequence);
+        List<UserChangeDTO> changes = new ArrayList<>();
+        while (changes.size() < maxChanges && sequence <= last) {
+            UserChangeDTO change = slots.get(index(sequence));
+            if (change == null || change.getSequence() != sequence) {
+                // Claimed but not written yet, or overwritten while reading; the next read sorts it out.
+                break;
+            }
+            changes.add(change);
+            sequence++;
+        }
+        return new ChangeBatch(changes, sequence, truncated);
+    }
+
+    public long lastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * The id of the change with the given sequence in an event stream: {@code <epoch>-<sequence>}.
+     */
+    public String eventId(long sequence) {
+        return epoch + '-' + sequence;
+    }
+
+    /**
+     * The sequence to resume from after the event with the given id. An id of another epoch, or one that
+     * cannot be parsed, gives a sequence ahead of the log, which {@link #read} reports as truncated.
+     */
+    public long sequenceAfter(String eventId) {
+        int separator = epoch.length();
+        if (eventId.length() > separator + 1 && eventId.startsWith(epoch) && eventId.charAt(separator) == '-') {
+            try {
+                long sequence = Long.parseLong(eventId, separator + 1, eventId.length(), 10);
+                if (sequence >= 0 && sequence < Long.MAX_VALUE) {
+                    return sequence + 1;
+                }
+            } catch (NumberFormatException e) {
+                // Not an id this log handed out.
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * How often stream consumers poll for new changes.
+     */
+    public Duration pollInterval() {
+        return pollInterval;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    /**
+     * @param nextSequence the sequence to read from next
+     * @param truncated    whether changes between the requested sequence and the first returned one were lost
+     */
+    public record ChangeBatch(List<UserChangeDTO> changes, long nextSequence, boolean truncated) {
+
+        public long firstSequence() {
+            return nextSequence - changes.size();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package clear.solution.test.config;
+
+import clear.solution.test.converter.TimedJsonHttpMessageConverter;
+import clear.solution.test.metrics.ServerTimingFilter;
+import clear.solution.test.metrics.TimedValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Stage timings of the servlet API. The JSON converter and the MVC validator are replaced by timed
+ * subclasses; both only read the clock for requests {@link ServerTimingFilter} chose to time.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ServerTimingConfig implements WebMvcConfigurer {
+    private final Validator validator;
+
+    public ServerTimingConfig(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${user.timing.sample-rate:0}") double sampleRate) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(sampleRate));
+        registration.addUrlPatterns("/users", "/users/*");
+        return registration;
+    }
+
+    /**
+     * Takes the place of Spring Boot's JSON converter, which backs off when one is defined.
+     */
+    @Bean
+    public TimedJsonHttpMessageConverter timedJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJsonHttpMessageConverter(objectMapper);
+    }
+
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        return new TimedValidator(validator);
+    }
+}
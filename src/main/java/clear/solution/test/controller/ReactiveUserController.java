@@ -0,0 +1,240 @@
+package clear.solution.test.controller;
+
+import clear.solution.test.cache.BirthDateRangeCache;
+import clear.solution.test.changelog.UserChangeLog;
+import clear.solution.test.changelog.UserChangeLog.ChangeBatch;
+import clear.solution.test.controller.UserControllerSupport.UserPage;
+import clear.solution.test.dto.AgeBucketCountDTO;
+import clear.solution.test.dto.BirthDateCountDTO;
+import clear.solution.test.dto.BirthYearCountDTO;
+import clear.solution.test.dto.RangeCacheStatsDTO;
+import clear.solution.test.dto.UserBatchItemDTO;
+import clear.solution.test.dto.UserChangeDTO;
+import clear.solution.test.dto.UserImportJobDTO;
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.export.UserExportCompression;
+import clear.solution.test.export.UserExportFormat;
+import clear.solution.test.export.UserExporter;
+import clear.solution.test.imports.UserImportFormat;
+import clear.solution.test.imports.UserImportService;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the same {@code /users} API as {@link UserController} on WebFlux, active when the application
+ * runs as a reactive web application (the {@code reactive} profile).
+ * <p>
+ * Service calls can block on the write-ahead log, so they run on the bounded elastic scheduler instead of
+ * the event loop. Unpaged range queries are streamed from the birth-date index as a {@link Flux}; users are
+ * only read and mapped as the client consumes them, on the same scheduler, so a slow client holds neither a
+ * thread nor the whole result.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/users")
+public class ReactiveUserController {
+    private static final int CHANGE_BATCH_SIZE = 256;
+    private final UserService userService;
+    private final UserMapper userMapper;
+    private final BirthDateRangeCache birthDateRangeCache;
+    private final UserControllerSupport userControllerSupport;
+    private final UserPatchReader userPatchReader;
+    private final UserChangeLog userChangeLog;
+    private final UserImportService userImportService;
+    private final UserExporter userExporter;
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponseDTO>> createUser(@Validated @RequestBody UserRequestDTO userRequestDTO) {
+        return blocking(() -> userService.createUser(userMapper.mapToUser(userRequestDTO)))
+                .map(createdUser -> ResponseEntity.ok(userMapper.mapToUserResponse(createdUser)));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<UserBatchItemDTO>>> createUsers(@RequestBody List<UserRequestDTO> userRequestDTOs) {
+        return blocking(() -> userControllerSupport.createUsers(userRequestDTOs))
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/imports")
+    public Mono<ResponseEntity<UserImportJobDTO>> startImport(@RequestParam String file,
+                                                              @RequestParam(required = false) UserImportFormat format) {
+        return blocking(() -> userImportService.start(file, format))
+                .map(job -> ResponseEntity.accepted()
+                        .location(URI.create("/users/imports/" + job.getId()))
+                        .body(job));
+    }
+
+    @GetMapping("/imports/{jobId}")
+    public Mono<ResponseEntity<UserImportJobDTO>> getImport(@PathVariable String jobId) {
+        return Mono.fromCallable(() -> ResponseEntity.of(userImportService.findJob(jobId)));
+    }
+
+    /**
+     * The exporter writes to a blocking stream, so it runs on the bounded elastic scheduler; the stream's
+     * buffers are handed to Netty as they fill up, and writing pauses while the client is not reading.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportUsers(@RequestParam(defaultValue = "NDJSON") UserExportFormat format,
+                                                        @RequestParam(defaultValue = "GZIP") UserExportCompression compression,
+                                                        ServerHttpResponse response) {
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(outputStream -> {
+            try {
+                userExporter.export(Channels.newChannel(outputStream), format, compression);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, response.bufferFactory(), task -> Schedulers.boundedElastic().schedule(task)));
+        return ResponseEntity.ok()
+                .headers(userControllerSupport.exportHeaders(format, compression))
+                .body(body);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UserResponseDTO>> updateUser(@PathVariable Long id,
+                                                            @Validated @RequestBody UserRequestDTO userRequestDTO) {
+        return blocking(() -> userService.updateUser(id, userMapper.mapToUser(userRequestDTO)))
+                .map(updatedUser -> ResponseEntity.ok(userMapper.mapToUserResponse(updatedUser)));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<User>> updateSomeUserFields(@PathVariable("id") Long id, @RequestBody byte[] body) {
+        return blocking(() -> userService.updateUserFields(id, userPatchReader.read(body)))
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        return Mono.fromRunnable(() -> userService.deletedUser(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/by-email/{email}")
+    public Mono<ResponseEntity<UserResponseDTO>> findUserByEmail(@PathVariable String email) {
+        return blocking(() -> userMapper.mapToUserResponse(userService.findUserByEmail(email)))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<UserResponseDTO>>> searchUsersByName(@RequestParam String q,
+                                                                         @RequestParam(defaultValue = "10") int limit) {
+        return blocking(() -> userControllerSupport.searchUsersByName(q, limit))
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Polls the change log on a timer. Ticks are dropped while the client is not keeping up, so a slow
+     * client only falls behind in the log; it is reported as truncated once it falls a whole lap behind.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamChanges(@RequestParam(required = false) Long fromSequence,
+                                                       @RequestHeader(name = UserControllerSupport.LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        AtomicLong cursor = new AtomicLong(userControllerSupport.changesStartSequence(fromSequence, lastEventId));
+        return Flux.interval(Duration.ZERO, userChangeLog.pollInterval())
+                .onBackpressureDrop()
+                .concatMapIterable(tick -> readChanges(cursor), 1);
+    }
+
+    @GetMapping("/cache/stats")
+    public Mono<ResponseEntity<RangeCacheStatsDTO>> getRangeCacheStats() {
+        return Mono.just(ResponseEntity.ok(birthDateRangeCache.stats()));
+    }
+
+    /**
+     * Stats are read from in-memory counters and never touch the store, so they are answered on the
+     * calling thread.
+     */
+    @GetMapping("/stats/count")
+    public Mono<ResponseEntity<BirthDateCountDTO>> countUsersByBirthDateRange(@RequestParam LocalDate fromDate,
+                                                                              @RequestParam LocalDate toDate) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(userControllerSupport.countUsersByBirthDateRange(fromDate, toDate)));
+    }
+
+    @GetMapping("/stats/birth-years")
+    public Mono<ResponseEntity<List<BirthYearCountDTO>>> countUsersByBirthYear(@RequestParam int fromYear,
+                                                                               @RequestParam int toYear) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(userControllerSupport.countUsersByBirthYear(fromYear, toYear)));
+    }
+
+    @GetMapping("/stats/ages")
+    public Mono<ResponseEntity<List<AgeBucketCountDTO>>> countUsersByAge(@RequestParam(defaultValue = "10") int bucketSize,
+                                                                         @RequestParam(defaultValue = "100") int maxAge) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(userControllerSupport.countUsersByAge(bucketSize, maxAge)));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<UserResponseDTO>>> findUsersByBirthDateRange(@RequestParam LocalDate fromDate,
+                                                                                 @RequestParam LocalDate toDate,
+                                                                                 @RequestParam(required = false) Integer limit,
+                                                                                 @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            // The range is validated when the stream is created, so a bad range still maps to a 400.
+            return blocking(() -> userService.streamUsersByBirthDateRange(fromDate, toDate))
+                    .map(users -> ResponseEntity.ok(Flux.fromStream(users.map(userMapper::mapToUserResponse))
+                            // Each element is read from the store as it is emitted, which can block too.
+                            .subscribeOn(Schedulers.boundedElastic())));
+        }
+        return blocking(() -> userControllerSupport.findUsersPage(fromDate, toDate,
+                limit == null ? UserControllerSupport.DEFAULT_PAGE_LIMIT : limit, cursor))
+                .map(this::toPageResponse);
+    }
+
+    private ResponseEntity<Flux<UserResponseDTO>> toPageResponse(UserPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(UserController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(Flux.fromIterable(page.users()));
+    }
+
+    private List<ServerSentEvent<Object>> readChanges(AtomicLong cursor) {
+        ChangeBatch batch = userChangeLog.read(cursor.get(), CHANGE_BATCH_SIZE);
+        cursor.set(batch.nextSequence());
+        List<ServerSentEvent<Object>> events = new ArrayList<>(batch.changes().size() + 1);
+        if (batch.truncated()) {
+            events.add(ServerSentEvent.builder()
+                    .event(UserControllerSupport.TRUNCATED_EVENT)
+                    .data(batch.firstSequence())
+                    .build());
+        }
+        for (UserChangeDTO change : batch.changes()) {
+            events.add(ServerSentEvent.builder()
+                    .id(userChangeLog.eventId(change.getSequence()))
+                    .event(change.getType().name())
+                    .data(change)
+                    .build());
+        }
+        return events;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,111 @@
+package clear.solution.test.controller;
+
+import clear.solution.test.changelog.UserChangeLog;
+import clear.solution.test.changelog.UserChangeLog.ChangeBatch;
+import clear.solution.test.dto.UserChangeDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the {@link UserChangeLog} to Server-Sent Events subscribers on the servlet runtime.
+ * <p>
+ * Writes to a slow client block, so every subscriber gets its own thread that polls the log from its own
+ * cursor. A stalled subscriber only delays itself; writers never wait for it. Idle streams get a comment
+ * line every heartbeat interval, which is how a disconnected client is noticed and its thread released.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class UserChangeStreamer {
+    private static final int BATCH_SIZE = 256;
+    private final UserChangeLog userChangeLog;
+    private final long heartbeatIntervalNanos;
+    private final Semaphore subscribers;
+    private final ExecutorService executor;
+
+    UserChangeStreamer(UserChangeLog userChangeLog,
+                       @Value("${user.changes.max-subscribers:32}") int maxSubscribers,
+                       @Value("${user.changes.heartbeat-interval-ms:15000}") long heartbeatIntervalMillis) {
+        this.userChangeLog = userChangeLog;
+        this.heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMillis);
+        this.subscribers = new Semaphore(maxSubscribers);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "user-changes-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    SseEmitter subscribe(long fromSequence) {
+        if (!subscribers.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change stream subscribers");
+        }
+        // No timeout: the stream ends when the client disconnects, and clients resume with Last-Event-ID.
+        SseEmitter emitter = new SseEmitter(0L);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        executor.execute(() -> {
+            try {
+                stream(emitter, open, fromSequence);
+            } finally {
+                subscribers.release();
+            }
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void stream(SseEmitter emitter, AtomicBoolean open, long fromSequence) {
+        long cursor = fromSequence;
+        long lastSent = System.nanoTime();
+        try {
+            while (open.get()) {
+                ChangeBatch batch = userChangeLog.read(cursor, BATCH_SIZE);
+                if (batch.truncated()) {
+                    emitter.send(SseEmitter.event()
+                            .name(UserControllerSupport.TRUNCATED_EVENT)
+                            .data(batch.firstSequence()));
+                }
+                for (UserChangeDTO change : batch.changes()) {
+                    emitter.send(SseEmitter.event()
+                            .id(userChangeLog.eventId(change.getSequence()))
+                            .name(change.getType().name())
+                            .data(change));
+                }
+                cursor = batch.nextSequence();
+                if (!batch.changes().isEmpty()) {
+                    lastSent = System.nanoTime();
+                } else if (System.nanoTime() - lastSent >= heartbeatIntervalNanos) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSent = System.nanoTime();
+                } else {
+                    Thread.sleep(userChangeLog.pollInterval().toMillis());
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter was completed; the container cleans up the request.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
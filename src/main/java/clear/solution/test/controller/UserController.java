@@ -1,26 +1,66 @@
 package clear.solution.test.controller;
 
+import clear.solution.test.cache.BirthDateRangeCache;
+import clear.solution.test.cache.UserJsonCache;
+import clear.solution.test.controller.UserControllerSupport.UserPage;
+import clear.solution.test.dto.AgeBucketCountDTO;
+import clear.solution.test.dto.BirthDateCountDTO;
+import clear.solution.test.dto.BirthYearCountDTO;
+import clear.solution.test.dto.RangeCacheStatsDTO;
+import clear.solution.test.dto.UserBatchItemDTO;
+import clear.solution.test.dto.UserImportJobDTO;
 import clear.solution.test.dto.UserRequestDTO;
 import clear.solution.test.dto.UserResponseDTO;
 import clear.solution.test.entity.User;
+import clear.solution.test.export.UserExportCompression;
+import clear.solution.test.export.UserExportFormat;
+import clear.solution.test.export.UserExporter;
+import clear.solution.test.imports.UserImportFormat;
+import clear.solution.test.imports.UserImportService;
 import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.metrics.RequestStage;
+import clear.solution.test.metrics.RequestTimings;
+import clear.solution.test.service.UserPatch;
 import clear.solution.test.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/users")
 public class UserController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int STREAM_FLUSH_INTERVAL = 256;
     private final UserService userService;
     private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final BirthDateRangeCache birthDateRangeCache;
+    private final UserControllerSupport userControllerSupport;
+    private final UserPatchReader userPatchReader;
+    private final UserJsonCache userJsonCache;
+    private final UserChangeStreamer userChangeStreamer;
+    private final UserImportService userImportService;
+    private final UserExporter userExporter;
 
     @PostMapping
     public ResponseEntity<UserResponseDTO> createUser(@Validated @RequestBody UserRequestDTO userRequestDTO) {
@@ -28,6 +68,35 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.OK).body(userMapper.mapToUserResponse(createdUser));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserBatchItemDTO>> createUsers(@RequestBody List<UserRequestDTO> userRequestDTOs) {
+        return ResponseEntity.ok(userControllerSupport.createUsers(userRequestDTOs));
+    }
+
+    @PostMapping("/imports")
+    public ResponseEntity<UserImportJobDTO> startImport(@RequestParam String file,
+                                                        @RequestParam(required = false) UserImportFormat format) {
+        UserImportJobDTO job = userImportService.start(file, format);
+        return ResponseEntity.accepted()
+                .location(URI.create("/users/imports/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<UserImportJobDTO> getImport(@PathVariable String jobId) {
+        return ResponseEntity.of(userImportService.findJob(jobId));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "NDJSON") UserExportFormat format,
+                                                             @RequestParam(defaultValue = "GZIP") UserExportCompression compression) {
+        StreamingResponseBody body = outputStream ->
+                userExporter.export(Channels.newChannel(outputStream), format, compression);
+        return ResponseEntity.ok()
+                .headers(userControllerSupport.exportHeaders(format, compression))
+                .body(body);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserResponseDTO> updateUser(@PathVariable Long id,
                                                       @Validated @RequestBody UserRequestDTO userRequestDTO) {
@@ -36,9 +105,9 @@ public class UserController {
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<User> updateSomeUserFields(@PathVariable("id") Long id,
-                                                     @RequestBody Map<String, Object> fields) {
-        User user = userService.updateUserFields(id, fields);
+    public ResponseEntity<User> updateSomeUserFields(@PathVariable("id") Long id, @RequestBody byte[] body) {
+        UserPatch patch = RequestTimings.time(RequestStage.READ, () -> userPatchReader.read(body));
+        User user = userService.updateUserFields(id, patch);
         return ResponseEntity.ok(user);
     }
 
@@ -48,13 +117,149 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<?> findUserByEmail(@PathVariable String email,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT, defaultValue = MediaType.ALL_VALUE) String accept) {
+        User user = userService.findUserByEmail(email);
+        if (useJsonCache(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(userJsonCache.toJson(user));
+        }
+        return ResponseEntity.ok(userMapper.mapToUserResponse(user));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<UserResponseDTO>> searchUsersByName(@RequestParam String q,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userControllerSupport.searchUsersByName(q, limit));
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long fromSequence,
+                                    @RequestHeader(name = UserControllerSupport.LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        return userChangeStreamer.subscribe(userControllerSupport.changesStartSequence(fromSequence, lastEventId));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<RangeCacheStatsDTO> getRangeCacheStats() {
+        return ResponseEntity.ok(birthDateRangeCache.stats());
+    }
+
+    @GetMapping("/stats/count")
+    public ResponseEntity<BirthDateCountDTO> countUsersByBirthDateRange(@RequestParam LocalDate fromDate,
+                                                                        @RequestParam LocalDate toDate) {
+        return ResponseEntity.ok(userControllerSupport.countUsersByBirthDateRange(fromDate, toDate));
+    }
+
+    @GetMapping("/stats/birth-years")
+    public ResponseEntity<List<BirthYearCountDTO>> countUsersByBirthYear(@RequestParam int fromYear,
+                                                                         @RequestParam int toYear) {
+        return ResponseEntity.ok(userControllerSupport.countUsersByBirthYear(fromYear, toYear));
+    }
+
+    @GetMapping("/stats/ages")
+    public ResponseEntity<List<AgeBucketCountDTO>> countUsersByAge(@RequestParam(defaultValue = "10") int bucketSize,
+                                                                   @RequestParam(defaultValue = "100") int maxAge) {
+        return ResponseEntity.ok(userControllerSupport.countUsersByAge(bucketSize, maxAge));
+    }
+
     @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> findUsersByBirthDateRange(@RequestParam LocalDate fromDate,
-                                                                           @RequestParam LocalDate toDate) {
-        List<UserResponseDTO> users = userService.findUsersByBirthDateRange(fromDate, toDate)
-                .stream()
-                .map(userMapper::mapToUserResponse)
-                .toList();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> findUsersByBirthDateRange(@RequestParam LocalDate fromDate,
+                                                       @RequestParam LocalDate toDate,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestHeader(name = HttpHeaders.ACCEPT, defaultValue = MediaType.ALL_VALUE) String accept) {
+        if (limit == null && cursor == null) {
+            if (useJsonCache(accept)) {
+                // Assembled from per-user JSON fragments, so unchanged users are not serialized again.
+                Stream<User> users = userService.streamUsersByBirthDateRange(fromDate, toDate);
+                StreamingResponseBody body = outputStream -> writeCachedJsonArray(users, outputStream);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body);
+            }
+            List<UserResponseDTO> users = birthDateRangeCache.get(fromDate, toDate,
+                    () -> userControllerSupport.findUsersByBirthDateRange(fromDate, toDate));
+            return ResponseEntity.ok(users);
+        }
+        UserPage page = userControllerSupport.findUsersPage(fromDate, toDate,
+                limit == null ? UserControllerSupport.DEFAULT_PAGE_LIMIT : limit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.users());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsersByBirthDateRange(@RequestParam LocalDate fromDate,
+                                                                             @RequestParam LocalDate toDate) {
+        Stream<User> users = userService.streamUsersByBirthDateRange(fromDate, toDate);
+        if (userJsonCache.isEnabled()) {
+            StreamingResponseBody body = outputStream -> writeCachedNdjson(users, outputStream);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(body);
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (users; JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<User> iterator = users.iterator();
+                for (int written = 1; iterator.hasNext(); written++) {
+                    generator.writeObject(userMapper.mapToUserResponse(iterator.next()));
+                    generator.writeRaw('\n');
+                    if (written == 1 || written % STREAM_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Cached fragments are JSON, so they are only used when JSON is the client's preferred type: the
+     * accepted type with the highest quality, the most specific one among equals and the first among
+     * those. Any other preference, such as CBOR with a wildcard fallback, is negotiated as usual.
+     */
+    private boolean useJsonCache(String accept) {
+        return userJsonCache.isEnabled() && MediaType.parseMediaTypes(accept).stream()
+                .reduce((preferred, mediaType) -> mediaType.isMoreSpecific(preferred) ? mediaType : preferred)
+                .filter(preferred -> preferred.includes(MediaType.APPLICATION_JSON))
+                .isPresent();
+    }
+
+    private void writeCachedJsonArray(Stream<User> users, OutputStream outputStream) throws IOException {
+        try (users) {
+            outputStream.write('[');
+            Iterator<User> iterator = users.iterator();
+            for (int written = 0; iterator.hasNext(); written++) {
+                if (written > 0) {
+                    outputStream.write(',');
+                }
+                outputStream.write(userJsonCache.toJson(iterator.next()));
+                if (written == 0 || (written + 1) % STREAM_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+            outputStream.write(']');
+        }
+    }
+
+    private void writeCachedNdjson(Stream<User> users, OutputStream outputStream) throws IOException {
+        try (users) {
+            Iterator<User> iterator = users.iterator();
+            for (int written = 1; iterator.hasNext(); written++) {
+                outputStream.write(userJsonCache.toJson(iterator.next()));
+                outputStream.write('\n');
+                if (written == 1 || written % STREAM_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
     }
 }
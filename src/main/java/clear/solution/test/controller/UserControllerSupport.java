@@ -0,0 +1,197 @@
+package clear.solution.test.controller;
+
+import clear.solution.test.changelog.UserChangeLog;
+import clear.solution.test.dto.AgeBucketCountDTO;
+import clear.solution.test.dto.BirthDateCountDTO;
+import clear.solution.test.dto.BirthDateCursor;
+import clear.solution.test.dto.BirthYearCountDTO;
+import clear.solution.test.dto.UserBatchItemDTO;
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.export.UserExportCompression;
+import clear.solution.test.export.UserExportFormat;
+import clear.solution.test.index.BirthDateKey;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.metrics.RequestStage;
+import clear.solution.test.metrics.RequestTimings;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.UserService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request handling shared by the servlet and the reactive controllers, so both serve the same API.
+ */
+@Component
+@RequiredArgsConstructor
+class UserControllerSupport {
+    static final int DEFAULT_PAGE_LIMIT = 100;
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    static final String TRUNCATED_EVENT = "TRUNCATED";
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_STATS_YEARS = 1000;
+    private static final int MAX_STATS_AGE = 200;
+    private final UserService userService;
+    private final UserMapper userMapper;
+    private final Validator validator;
+    private final UserChangeLog userChangeLog;
+
+    List<UserBatchItemDTO> createUsers(List<UserRequestDTO> userRequestDTOs) {
+        if (userRequestDTOs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+        UserBatchItemDTO[] items = new UserBatchItemDTO[userRequestDTOs.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>(items.length);
+        List<User> acceptedUsers = new ArrayList<>(items.length);
+        for (int i = 0; i < items.length; i++) {
+            UserRequestDTO userRequestDTO = userRequestDTOs.get(i);
+            String violations = userRequestDTO == null ? "User is required. " : validate(userRequestDTO);
+            if (violations.isEmpty()) {
+                acceptedIndexes.add(i);
+                acceptedUsers.add(userMapper.mapToUser(userRequestDTO));
+            } else {
+                items[i] = new UserBatchItemDTO(i, HttpStatus.BAD_REQUEST.value(), null, violations);
+            }
+        }
+        List<BatchCreateResult> results = acceptedUsers.isEmpty() ? List.of() : userService.createUsers(acceptedUsers);
+        for (int i = 0; i < results.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            BatchCreateResult result = results.get(i);
+            items[index] = result.isCreated()
+                    ? new UserBatchItemDTO(index, HttpStatus.OK.value(), userMapper.mapToUserResponse(result.getUser()), null)
+                    : new UserBatchItemDTO(index, HttpStatus.BAD_REQUEST.value(), null, result.getError());
+        }
+        return Arrays.asList(items);
+    }
+
+    List<UserResponseDTO> searchUsersByName(String query, int limit) {
+        if (limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("limit must not exceed " + MAX_SEARCH_LIMIT);
+        }
+        return userService.searchUsersByName(query, limit)
+                .stream()
+                .map(userMapper::mapToUserResponse)
+                .toList();
+    }
+
+    List<UserResponseDTO> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        return userService.findUsersByBirthDateRange(fromDate, toDate)
+                .stream()
+                .map(userMapper::mapToUserResponse)
+                .toList();
+    }
+
+    UserPage findUsersPage(LocalDate fromDate, LocalDate toDate, int limit, String cursor) {
+        if (limit <= 0 || limit > MAX_PAGE_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_LIMIT);
+        }
+        BirthDateKey after = cursor == null ? null : BirthDateCursor.decode(cursor);
+        List<User> users = userService.findUsersByBirthDateRange(fromDate, toDate, after, limit + 1);
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            User last = users.get(limit - 1);
+            nextCursor = BirthDateCursor.encode(new BirthDateKey(last.getBirthDate(), last.getId()));
+        }
+        return new UserPage(users.stream()
+                .map(userMapper::mapToUserResponse)
+                .toList(), nextCursor);
+    }
+
+    BirthDateCountDTO countUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        return new BirthDateCountDTO(fromDate, toDate, userService.countUsersByBirthDateRange(fromDate, toDate));
+    }
+
+    List<BirthYearCountDTO> countUsersByBirthYear(int fromYear, int toYear) {
+        if (fromYear < 1 || toYear > 9999 || fromYear > toYear || toYear - fromYear >= MAX_STATS_YEARS) {
+            throw new IllegalArgumentException("Years must be between 1 and 9999 and span at most "
+                    + MAX_STATS_YEARS + " years");
+        }
+        List<BirthYearCountDTO> counts = new ArrayList<>(toYear - fromYear + 1);
+        for (int year = fromYear; year <= toYear; year++) {
+            long count = userService.countUsersByBirthDateRange(LocalDate.of(year, 1, 1).minusDays(1),
+                    LocalDate.of(year + 1, 1, 1));
+            counts.add(new BirthYearCountDTO(year, count));
+        }
+        return counts;
+    }
+
+    /**
+     * Counts users by age as of today in buckets of {@code bucketSize} years, followed by one bucket for
+     * everyone aged {@code maxAge} or more.
+     */
+    List<AgeBucketCountDTO> countUsersByAge(int bucketSize, int maxAge) {
+        if (bucketSize <= 0 || maxAge < bucketSize || maxAge > MAX_STATS_AGE) {
+            throw new IllegalArgumentException("bucketSize must be at least 1 and maxAge between bucketSize and "
+                    + MAX_STATS_AGE);
+        }
+        LocalDate today = LocalDate.now();
+        List<AgeBucketCountDTO> buckets = new ArrayList<>(maxAge / bucketSize + 2);
+        for (int minAge = 0; minAge < maxAge; minAge += bucketSize) {
+            int nextMinAge = Math.min(minAge + bucketSize, maxAge);
+            // Aged at least n means born on or before today minus n years.
+            long count = userService.countUsersByBirthDateRange(today.minusYears(nextMinAge),
+                    today.minusYears(minAge).plusDays(1));
+            buckets.add(new AgeBucketCountDTO(minAge, nextMinAge - 1, count));
+        }
+        long count = userService.countUsersByBirthDateRange(LocalDate.MIN, today.minusYears(maxAge).plusDays(1));
+        buckets.add(new AgeBucketCountDTO(maxAge, null, count));
+        return buckets;
+    }
+
+    /**
+     * Exports are served as a file download named after the format and compression, e.g. {@code users.ndjson.gz}.
+     */
+    HttpHeaders exportHeaders(UserExportFormat format, UserExportCompression compression) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(compression.getMediaType() != null
+                ? compression.getMediaType()
+                : format.getMediaType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("users" + format.getExtension() + compression.getExtension())
+                .build());
+        return headers;
+    }
+
+    private String validate(UserRequestDTO userRequestDTO) {
+        Set<ConstraintViolation<UserRequestDTO>> violations = RequestTimings.time(RequestStage.VALIDATION,
+                () -> validator.validate(userRequestDTO));
+        StringBuilder errorMessage = new StringBuilder();
+        for (ConstraintViolation<UserRequestDTO> violation : violations) {
+            errorMessage.append(violation.getMessage()).append(". ");
+        }
+        return errorMessage.toString();
+    }
+
+    /**
+     * The first change sequence to stream: the one after {@code Last-Event-ID} when an event source
+     * reconnects, else the requested one, else only changes made from now on.
+     */
+    long changesStartSequence(Long fromSequence, String lastEventId) {
+        if (lastEventId != null) {
+            return userChangeLog.sequenceAfter(lastEventId);
+        }
+        return fromSequence != null ? fromSequence : userChangeLog.lastSequence() + 1;
+    }
+
+    /**
+     * One page of a range query; {@code nextCursor} is {@code null} on the last page.
+     */
+    record UserPage(List<UserResponseDTO> users, String nextCursor) {
+    }
+}
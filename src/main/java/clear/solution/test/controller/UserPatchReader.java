@@ -0,0 +1,54 @@
+package clear.solution.test.controller;
+
+import clear.solution.test.service.UserPatch;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads a JSON merge patch body token by token straight into a {@link UserPatch}, without binding it to a
+ * map first. Every problem with the body is reported as an {@link IllegalArgumentException}, so it ends
+ * up as a regular 400 response.
+ */
+@Component
+class UserPatchReader {
+    private final JsonFactory jsonFactory;
+
+    UserPatchReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    UserPatch read(byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Patch must be a JSON object.");
+            }
+            UserPatch patch = new UserPatch();
+            for (String name = parser.nextFieldName(); name != null; name = parser.nextFieldName()) {
+                UserPatch.Field field = UserPatch.Field.byName(name);
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING) {
+                    patch.set(field, parser.getText());
+                } else if (value == JsonToken.VALUE_NULL) {
+                    patch.set(field, null);
+                } else {
+                    throw new IllegalArgumentException("Field " + name + " must be a string.");
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Patch must be a single JSON object.");
+            }
+            return patch;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON patch: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package clear.solution.test.converter;
+
+import clear.solution.test.metrics.RequestStage;
+import clear.solution.test.metrics.RequestTimings;
+import clear.solution.test.metrics.ServerTimingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter, timing serialization as the {@link RequestStage#SERIALIZATION} stage of timed
+ * requests. A body whose timings go into the {@code Server-Timing} header is serialized into a buffer
+ * first, so the header, which has to precede the body, can include serialization. Requests that are not
+ * timed are written straight to the response as usual.
+ */
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        long started = System.nanoTime();
+        if (!timings.isServerTimingHeader()) {
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                timings.add(RequestStage.SERIALIZATION, System.nanoTime() - started);
+            }
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        timings.add(RequestStage.SERIALIZATION, System.nanoTime() - started);
+        outputMessage.getHeaders().add(ServerTimingFilter.SERVER_TIMING, timings.toServerTimingHeader());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,326 @@
+package clear.solution.test.converter;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Protobuf wire encoding of the user DTOs, following {@code src/main/proto/users.proto}. Birth dates are
+ * zigzag-encoded epoch days and {@code null} fields are left out, so a typical user takes less than half
+ * the bytes of its JSON. Unknown fields are skipped, which keeps older servers compatible with newer
+ * schemas.
+ */
+public final class UserProtobufCodec {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private static final int LIST_USERS = 1 << 3 | LENGTH_DELIMITED;
+
+    private static final int REQUEST_EMAIL = 1 << 3 | LENGTH_DELIMITED;
+    private static final int REQUEST_FIRST_NAME = 2 << 3 | LENGTH_DELIMITED;
+    private static final int REQUEST_LAST_NAME = 3 << 3 | LENGTH_DELIMITED;
+    private static final int REQUEST_BIRTH_DATE = 4 << 3 | VARINT;
+    private static final int REQUEST_ADDRESS = 5 << 3 | LENGTH_DELIMITED;
+    private static final int REQUEST_PHONE_NUMBER = 6 << 3 | LENGTH_DELIMITED;
+
+    private static final int RESPONSE_ID = 1 << 3 | VARINT;
+    private static final int RESPONSE_EMAIL = 2 << 3 | LENGTH_DELIMITED;
+    private static final int RESPONSE_FIRST_NAME = 3 << 3 | LENGTH_DELIMITED;
+    private static final int RESPONSE_LAST_NAME = 4 << 3 | LENGTH_DELIMITED;
+    private static final int RESPONSE_BIRTH_DATE = 5 << 3 | VARINT;
+    private static final int RESPONSE_ADDRESS = 6 << 3 | LENGTH_DELIMITED;
+    private static final int RESPONSE_PHONE_NUMBER = 7 << 3 | LENGTH_DELIMITED;
+
+    private UserProtobufCodec() {
+    }
+
+    public static byte[] encodeRequest(UserRequestDTO user) {
+        ProtobufWriter writer = new ProtobufWriter();
+        writer.string(REQUEST_EMAIL, user.getEmail());
+        writer.string(REQUEST_FIRST_NAME, user.getFirstName());
+        writer.string(REQUEST_LAST_NAME, user.getLastName());
+        writer.date(REQUEST_BIRTH_DATE, user.getBirthDate());
+        writer.string(REQUEST_ADDRESS, user.getAddress());
+        writer.string(REQUEST_PHONE_NUMBER, user.getPhoneNumber());
+        return writer.toByteArray();
+    }
+
+    public static byte[] encodeResponse(UserResponseDTO user) {
+        ProtobufWriter writer = new ProtobufWriter();
+        writeResponse(writer, user);
+        return writer.toByteArray();
+    }
+
+    public static void writeResponse(UserResponseDTO user, OutputStream outputStream) throws IOException {
+        ProtobufWriter writer = new ProtobufWriter();
+        writeResponse(writer, user);
+        writer.writeTo(outputStream);
+    }
+
+    /**
+     * Writes a {@code UserResponseList}. Users are encoded one at a time into a small buffer that is handed
+     * to the stream every few kilobytes, so the whole list is never held in memory in encoded form.
+     */
+    public static void writeResponses(List<UserResponseDTO> users, OutputStream outputStream) throws IOException {
+        ProtobufWriter message = new ProtobufWriter();
+        ProtobufWriter buffer = new ProtobufWriter();
+        for (UserResponseDTO user : users) {
+            message.reset();
+            writeResponse(message, user);
+            buffer.message(LIST_USERS, message);
+            if (buffer.size >= FLUSH_THRESHOLD) {
+                buffer.writeTo(outputStream);
+                buffer.reset();
+            }
+        }
+        buffer.writeTo(outputStream);
+    }
+
+    public static UserRequestDTO decodeRequest(byte[] bytes) {
+        return readRequest(new ProtobufReader(bytes, 0, bytes.length));
+    }
+
+    public static List<UserRequestDTO> decodeRequests(byte[] bytes) {
+        List<UserRequestDTO> users = new ArrayList<>();
+        ProtobufReader reader = new ProtobufReader(bytes, 0, bytes.length);
+        while (reader.hasRemaining()) {
+            int tag = reader.tag();
+            if (tag == LIST_USERS) {
+                users.add(readRequest(reader.message()));
+            } else {
+                reader.skip(tag);
+            }
+        }
+        return users;
+    }
+
+    public static UserResponseDTO decodeResponse(byte[] bytes) {
+        return readResponse(new ProtobufReader(bytes, 0, bytes.length));
+    }
+
+    public static List<UserResponseDTO> decodeResponses(byte[] bytes) {
+        List<UserResponseDTO> users = new ArrayList<>();
+        ProtobufReader reader = new ProtobufReader(bytes, 0, bytes.length);
+        while (reader.hasRemaining()) {
+            int tag = reader.tag();
+            if (tag == LIST_USERS) {
+                users.add(readResponse(reader.message()));
+            } else {
+                reader.skip(tag);
+            }
+        }
+        return users;
+    }
+
+    private static void writeResponse(ProtobufWriter writer, UserResponseDTO user) {
+        if (user.getId() != null) {
+            writer.tag(RESPONSE_ID);
+            writer.varint(user.getId());
+        }
+        writer.string(RESPONSE_EMAIL, user.getEmail());
+        writer.string(RESPONSE_FIRST_NAME, user.getFirstName());
+        writer.string(RESPONSE_LAST_NAME, user.getLastName());
+        writer.date(RESPONSE_BIRTH_DATE, user.getBirthDate());
+        writer.string(RESPONSE_ADDRESS, user.getAddress());
+        writer.string(RESPONSE_PHONE_NUMBER, user.getPhoneNumber());
+    }
+
+    private static UserRequestDTO readRequest(ProtobufReader reader) {
+        UserRequestDTO user = new UserRequestDTO(null, null, null, null, null, null);
+        while (reader.hasRemaining()) {
+            int tag = reader.tag();
+            switch (tag) {
+                case REQUEST_EMAIL -> user.setEmail(reader.string());
+                case REQUEST_FIRST_NAME -> user.setFirstName(reader.string());
+                case REQUEST_LAST_NAME -> user.setLastName(reader.string());
+                case REQUEST_BIRTH_DATE -> user.setBirthDate(reader.date());
+                case REQUEST_ADDRESS -> user.setAddress(reader.string());
+                case REQUEST_PHONE_NUMBER -> user.setPhoneNumber(reader.string());
+                default -> reader.skip(tag);
+            }
+        }
+        return user;
+    }
+
+    private static UserResponseDTO readResponse(ProtobufReader reader) {
+        UserResponseDTO user = new UserResponseDTO(null, null, null, null, null, null, null);
+        while (reader.hasRemaining()) {
+            int tag = reader.tag();
+            switch (tag) {
+                case RESPONSE_ID -> user.setId(reader.varint());
+                case RESPONSE_EMAIL -> user.setEmail(reader.string());
+                case RESPONSE_FIRST_NAME -> user.setFirstName(reader.string());
+                case RESPONSE_LAST_NAME -> user.setLastName(reader.string());
+                case RESPONSE_BIRTH_DATE -> user.setBirthDate(reader.date());
+                case RESPONSE_ADDRESS -> user.setAddress(reader.string());
+                case RESPONSE_PHONE_NUMBER -> user.setPhoneNumber(reader.string());
+                default -> reader.skip(tag);
+            }
+        }
+        return user;
+    }
+
+    private static final class ProtobufWriter {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void tag(int tag) {
+            varint(tag);
+        }
+
+        void varint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void string(int tag, String value) {
+            if (value == null) {
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            tag(tag);
+            varint(utf8.length);
+            write(utf8, utf8.length);
+        }
+
+        void date(int tag, LocalDate value) {
+            if (value == null) {
+                return;
+            }
+            int epochDay = (int) value.toEpochDay();
+            tag(tag);
+            varint(Integer.toUnsignedLong((epochDay << 1) ^ (epochDay >> 31)));
+        }
+
+        void message(int tag, ProtobufWriter message) {
+            tag(tag);
+            varint(message.size);
+            write(message.bytes, message.size);
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        void writeTo(OutputStream outputStream) throws IOException {
+            outputStream.write(bytes, 0, size);
+        }
+
+        private void write(byte[] source, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class ProtobufReader {
+        private final byte[] bytes;
+        private final int limit;
+        private int position;
+
+        ProtobufReader(byte[] bytes, int offset, int limit) {
+            this.bytes = bytes;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        boolean hasRemaining() {
+            return position < limit;
+        }
+
+        int tag() {
+            long tag = varint();
+            if (tag >>> 3 == 0 || tag > Integer.MAX_VALUE) {
+                throw malformed("invalid tag " + tag);
+            }
+            return (int) tag;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit) {
+                    throw malformed("truncated varint");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw malformed("varint longer than 10 bytes");
+        }
+
+        String string() {
+            int length = length();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        LocalDate date() {
+            int zigzag = (int) varint();
+            return LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+
+        ProtobufReader message() {
+            int length = length();
+            ProtobufReader message = new ProtobufReader(bytes, position, position + length);
+            position += length;
+            return message;
+        }
+
+        void skip(int tag) {
+            switch (tag & 0x7) {
+                case VARINT -> varint();
+                case FIXED64 -> advance(Long.BYTES);
+                case LENGTH_DELIMITED -> advance(length());
+                case FIXED32 -> advance(Integer.BYTES);
+                default -> throw malformed("unsupported wire type " + (tag & 0x7));
+            }
+        }
+
+        private int length() {
+            long length = varint();
+            if (length < 0 || length > limit - position) {
+                throw malformed("truncated field");
+            }
+            return (int) length;
+        }
+
+        private void advance(int length) {
+            if (length > limit - position) {
+                throw malformed("truncated field");
+            }
+            position += length;
+        }
+
+        private static IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("Malformed protobuf message: " + reason);
+        }
+    }
+}
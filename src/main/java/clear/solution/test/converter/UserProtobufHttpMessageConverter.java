@@ -0,0 +1,114 @@
+package clear.solution.test.converter;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads {@link UserRequestDTO}s and writes {@link UserResponseDTO}s, single or as lists, as
+ * {@code application/x-protobuf} using {@link UserProtobufCodec}. Other types are left to the Jackson
+ * converters, so error bodies are only available as JSON, CBOR or Smile.
+ */
+public class UserProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public UserProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == UserRequestDTO.class || clazz == UserResponseDTO.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return clazz == UserRequestDTO.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return isMessageOrList(ResolvableType.forType(type), UserRequestDTO.class) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return canWrite(null, clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        ResolvableType resolvable = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+        if (resolvable.resolve(Object.class) == Object.class) {
+            // A ResponseEntity<?> only tells the runtime class of the body.
+            resolvable = ResolvableType.forClass(clazz);
+        }
+        return isMessageOrList(resolvable, UserResponseDTO.class) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return decode(ResolvableType.forType(type), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return decode(ResolvableType.forClass(clazz), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (object instanceof UserResponseDTO user) {
+            UserProtobufCodec.writeResponse(user, outputMessage.getBody());
+            return;
+        }
+        List<?> users = (List<?>) object;
+        for (Object user : users) {
+            if (!(user instanceof UserResponseDTO)) {
+                throw new HttpMessageNotWritableException("Cannot write " + user.getClass().getName() + " as protobuf");
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<UserResponseDTO> responses = (List<UserResponseDTO>) users;
+        UserProtobufCodec.writeResponses(responses, outputMessage.getBody());
+    }
+
+    private Object decode(ResolvableType type, HttpInputMessage inputMessage) throws IOException {
+        byte[] body = StreamUtils.copyToByteArray(inputMessage.getBody());
+        try {
+            return List.class.isAssignableFrom(type.toClass())
+                    ? UserProtobufCodec.decodeRequests(body)
+                    : UserProtobufCodec.decodeRequest(body);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    /**
+     * Accepts the message class itself or a list of it. A list whose element type is unknown is accepted
+     * too, and its elements are checked when it is written.
+     */
+    private static boolean isMessageOrList(ResolvableType type, Class<?> messageClass) {
+        Class<?> clazz = type.toClass();
+        if (clazz == messageClass) {
+            return true;
+        }
+        if (!List.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        Class<?> element = type.asCollection().getGeneric(0).resolve();
+        return element == null || element == messageClass;
+    }
+}
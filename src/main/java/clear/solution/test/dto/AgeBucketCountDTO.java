@@ -0,0 +1,15 @@
+package clear.solution.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AgeBucketCountDTO {
+    private int minAge;
+    /**
+     * Inclusive; {@code null} for the last bucket, which holds everyone from {@code minAge} up.
+     */
+    private Integer maxAge;
+    private long count;
+}
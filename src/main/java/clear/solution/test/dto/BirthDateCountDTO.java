@@ -0,0 +1,14 @@
+package clear.solution.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class BirthDateCountDTO {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private long count;
+}
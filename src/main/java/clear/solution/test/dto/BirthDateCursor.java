@@ -0,0 +1,30 @@
+package clear.solution.test.dto;
+
+import clear.solution.test.index.BirthDateKey;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+public final class BirthDateCursor {
+    private static final char SEPARATOR = ':';
+
+    private BirthDateCursor() {
+    }
+
+    public static String encode(BirthDateKey key) {
+        String raw = key.birthDate().toEpochDay() + String.valueOf(SEPARATOR) + key.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static BirthDateKey decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            return new BirthDateKey(LocalDate.ofEpochDay(Long.parseLong(raw.substring(0, separator))),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package clear.solution.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BirthYearCountDTO {
+    private int year;
+    private long count;
+}
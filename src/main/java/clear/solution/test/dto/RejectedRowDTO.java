@@ -0,0 +1,11 @@
+package clear.solution.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RejectedRowDTO {
+    private long line;
+    private String error;
+}
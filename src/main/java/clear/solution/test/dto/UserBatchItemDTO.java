@@ -0,0 +1,13 @@
+package clear.solution.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserBatchItemDTO {
+    private int index;
+    private int responseCode;
+    private UserResponseDTO user;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package clear.solution.test.dto;
+
+import clear.solution.test.event.UserChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class UserChangeDTO {
+    private long sequence;
+    private UserChangedEvent.Type type;
+    private Long userId;
+    private Instant timestamp;
+    private UserResponseDTO user;
+}
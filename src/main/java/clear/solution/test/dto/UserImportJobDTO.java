@@ -0,0 +1,31 @@
+package clear.solution.test.dto;
+
+import clear.solution.test.imports.UserImportFormat;
+import clear.solution.test.imports.UserImportJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserImportJobDTO {
+    private String id;
+    private String file;
+    private UserImportFormat format;
+    private UserImportJob.Status status;
+    private long fileSize;
+    private long bytesRead;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private double rowsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+    /**
+     * The first rejected rows, up to a fixed number; {@code rejected} has the total.
+     */
+    private List<RejectedRowDTO> rejectedRows;
+}
@@ -1,9 +1,11 @@
 package clear.solution.test.dto;
 
+import clear.solution.test.entity.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -14,14 +16,19 @@ import java.time.LocalDate;
 public class UserRequestDTO {
     @NotBlank(message = "Email is required")
     @Email(message = "Invalid email format")
+    @Size(max = User.MAX_EMAIL_LENGTH, message = "Email must be at most {max} characters")
     private String email;
     @NotBlank(message = "First name is required")
+    @Size(max = User.MAX_NAME_LENGTH, message = "First name must be at most {max} characters")
     private String firstName;
     @NotBlank(message = "Last name is required")
+    @Size(max = User.MAX_NAME_LENGTH, message = "Last name must be at most {max} characters")
     private String lastName;
     @NotNull(message = "Birth date is required")
     @Past(message = "Birth date must be in the past")
     private LocalDate birthDate;
+    @Size(max = User.MAX_ADDRESS_LENGTH, message = "Address must be at most {max} characters")
     private String address;
+    @Size(max = User.MAX_PHONE_NUMBER_LENGTH, message = "Phone number must be at most {max} characters")
     private String phoneNumber;
 }
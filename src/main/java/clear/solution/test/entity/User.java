@@ -8,6 +8,12 @@ import java.time.LocalDate;
 @Data
 @AllArgsConstructor
 public class User {
+    // Column sizes of the JDBC storage engine, enforced for every engine where users enter the API.
+    public static final int MAX_EMAIL_LENGTH = 320;
+    public static final int MAX_NAME_LENGTH = 255;
+    public static final int MAX_ADDRESS_LENGTH = 1024;
+    public static final int MAX_PHONE_NUMBER_LENGTH = 64;
+
     private Long id;
     private String email;
     private String firstName;
@@ -0,0 +1,18 @@
+package clear.solution.test.event;
+
+import clear.solution.test.entity.User;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the user service after a user has been created, updated or deleted. {@code user} is the
+ * stored user itself, not a copy, so listeners must read what they need before returning.
+ */
+public record UserChangedEvent(Type type, Long userId, LocalDate birthDate, User user) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
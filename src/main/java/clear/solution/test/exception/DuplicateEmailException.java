@@ -0,0 +1,7 @@
+package clear.solution.test.exception;
+
+public class DuplicateEmailException extends RuntimeException {
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,51 @@
+package clear.solution.test.export;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+public enum UserExportCompression {
+    NONE("", null),
+    GZIP(".gz", "application/gzip"),
+    ZSTD(".zst", "application/zstd");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int ZSTD_LEVEL = 3;
+    private final String extension;
+    private final String mediaType;
+
+    UserExportCompression(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Media type of the compressed file, {@code null} when not compressed.
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            case ZSTD -> new ZstdOutputStream(out, ZSTD_LEVEL);
+        };
+    }
+
+    static UserExportCompression fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(GZIP.extension)) {
+            return GZIP;
+        }
+        return name.endsWith(ZSTD.extension) ? ZSTD : NONE;
+    }
+}
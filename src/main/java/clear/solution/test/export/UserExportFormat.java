@@ -0,0 +1,35 @@
+package clear.solution.test.export;
+
+import java.util.Locale;
+
+public enum UserExportFormat {
+    NDJSON(".ndjson", "application/x-ndjson"),
+    CSV(".csv", "text/csv");
+
+    private final String extension;
+    private final String mediaType;
+
+    UserExportFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    static UserExportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (UserExportFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Can't tell the export format of " + fileName
+                + ", use a .ndjson or .csv file name");
+    }
+}
@@ -0,0 +1,55 @@
+package clear.solution.test.export;
+
+import clear.solution.test.export.UserExporter.ExportResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline export: with {@code user.export.file} set, the store is written to that file once the
+ * application has started. Run it with the {@code export} profile, which starts no web server, so the
+ * application exits when the export is done. Format and compression follow the file name, e.g.
+ * {@code users.csv.zst}. The file is written next to its final name and moved into place when complete.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "user.export.file")
+class UserExportRunner implements ApplicationRunner {
+    private final UserExporter userExporter;
+    private final Path file;
+
+    UserExportRunner(UserExporter userExporter, @Value("${user.export.file}") String file) {
+        this.userExporter = userExporter;
+        this.file = Path.of(file).toAbsolutePath();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        String fileName = file.getFileName().toString();
+        UserExportCompression compression = UserExportCompression.fromFileName(fileName);
+        UserExportFormat format = UserExportFormat.fromFileName(
+                fileName.substring(0, fileName.length() - compression.getExtension().length()));
+        Path partial = file.resolveSibling(fileName + ".partial");
+        long started = System.nanoTime();
+        ExportResult result;
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            result = userExporter.export(channel, format, compression);
+            channel.force(false);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Exported {} users to {} ({} bytes) in {} ms", result.users(), file, result.bytes(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+}
@@ -0,0 +1,114 @@
+package clear.solution.test.export;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.repository.UserRepository;
+import clear.solution.test.service.impl.UserWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every user in the store to a channel as NDJSON or CSV, optionally compressed.
+ * <p>
+ * The export is a point-in-time snapshot: {@link UserRepository#findAllAsOfNow()} is called while the
+ * {@link UserWriter} holds off writers, which only lasts while the view is captured, not while it is
+ * written. For the in-memory store that copies one reference per user, since stored users are never
+ * changed in place; the JDBC store streams one query instead. Rows then pass through a fixed set of
+ * buffers, the encoder's, the compressor's and one direct buffer in front of the channel.
+ * <p>
+ * CSV values with commas, quotes or line breaks are quoted, which the CSV import reads back as they were.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserExporter {
+    static final String CSV_HEADER = "id,email,firstName,lastName,birthDate,address,phoneNumber";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final UserRepository userRepository;
+    private final UserWriter userWriter;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Exports all users and returns how many were written. The channel is left open.
+     */
+    public ExportResult export(WritableByteChannel channel, UserExportFormat format,
+                               UserExportCompression compression) throws IOException {
+        ChannelOutputStream channelOutput = new ChannelOutputStream(channel, BUFFER_SIZE);
+        long users;
+        try (Stream<User> store = userWriter.holdingWrites(userRepository::findAllAsOfNow);
+             OutputStream output = compression.wrap(channelOutput)) {
+            users = format == UserExportFormat.CSV
+                    ? writeCsv(store.iterator(), output)
+                    : writeNdjson(store.iterator(), output);
+        }
+        return new ExportResult(users, channelOutput.getWritten());
+    }
+
+    private long writeNdjson(Iterator<User> users, OutputStream output) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (users.hasNext()) {
+                generator.writeObject(userMapper.mapToUserResponse(users.next()));
+                generator.writeRaw('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private long writeCsv(Iterator<User> users, OutputStream output) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (users.hasNext()) {
+            User user = users.next();
+            writer.write(String.valueOf(user.getId()));
+            writeCsvField(writer, user.getEmail());
+            writeCsvField(writer, user.getFirstName());
+            writeCsvField(writer, user.getLastName());
+            writeCsvField(writer, user.getBirthDate() == null ? null : user.getBirthDate().toString());
+            writeCsvField(writer, user.getAddress());
+            writeCsvField(writer, user.getPhoneNumber());
+            writer.write('\n');
+            written++;
+        }
+        // Not closed: the output belongs to the caller.
+        writer.flush();
+        return written;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Number of users exported and bytes written to the channel, after compression.
+     */
+    public record ExportResult(long users, long bytes) {
+    }
+}
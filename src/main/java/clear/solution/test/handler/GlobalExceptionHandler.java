@@ -1,32 +1,43 @@
 package clear.solution.test.handler;
 
+import clear.solution.test.exception.DuplicateEmailException;
 import clear.solution.test.exception.InvalidAgeException;
 import clear.solution.test.exception.UserNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    static final String ERROR_COUNTER = "users.http.errors";
     private static final String MESSAGE = "message";
     private static final String RESPONSE_CODE = "response_code";
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler({
             MethodArgumentNotValidException.class,
+            WebExchangeBindException.class,
             IllegalArgumentException.class,
             InvalidAgeException.class
     })
     public ResponseEntity<Map<String, String>> handleBadRequest(Exception exception) {
+        countError(HttpStatus.BAD_REQUEST, exception);
         Map<String, String> error = new HashMap<>();
         error.put(RESPONSE_CODE, String.valueOf(HttpStatus.BAD_REQUEST.value()));
-        if (exception.getClass().equals(MethodArgumentNotValidException.class)) {
+        if (exception instanceof BindingResult bindingResult) {
             StringBuilder errorMessage = new StringBuilder();
-            for (FieldError fieldError : ((MethodArgumentNotValidException) exception).getBindingResult().getFieldErrors()) {
+            for (FieldError fieldError : bindingResult.getFieldErrors()) {
                 errorMessage.append(fieldError.getDefaultMessage()).append(". ");
             }
             error.put(MESSAGE, errorMessage.toString());
@@ -39,9 +50,24 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleNotFound(Exception exception) {
+        countError(HttpStatus.NOT_FOUND, exception);
         Map<String, String> error = new HashMap<>();
         error.put(RESPONSE_CODE, String.valueOf(HttpStatus.BAD_REQUEST.value()));
         error.put(MESSAGE, exception.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
+
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(Exception exception) {
+        countError(HttpStatus.CONFLICT, exception);
+        Map<String, String> error = new HashMap<>();
+        error.put(RESPONSE_CODE, String.valueOf(HttpStatus.CONFLICT.value()));
+        error.put(MESSAGE, exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    private void countError(HttpStatus status, Exception exception) {
+        meterRegistry.counter(ERROR_COUNTER, "status", String.valueOf(status.value()),
+                "exception", exception.getClass().getSimpleName()).increment();
+    }
 }
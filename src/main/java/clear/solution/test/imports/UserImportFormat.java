@@ -0,0 +1,19 @@
+package clear.solution.test.imports;
+
+import java.util.Locale;
+
+public enum UserImportFormat {
+    NDJSON,
+    CSV;
+
+    static UserImportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Can't tell the format of " + fileName + ", pass format=NDJSON or format=CSV");
+    }
+}
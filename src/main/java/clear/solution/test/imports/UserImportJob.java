@@ -0,0 +1,113 @@
+package clear.solution.test.imports;
+
+import clear.solution.test.dto.RejectedRowDTO;
+import clear.solution.test.dto.UserImportJobDTO;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import. Counters are updated by the reader and the worker threads and read by status
+ * requests at any time, so a snapshot taken while the job runs may be a batch behind.
+ */
+public class UserImportJob {
+    static final int MAX_REJECTED_ROWS_REPORTED = 100;
+    private final String id;
+    private final String file;
+    private final UserImportFormat format;
+    private final long fileSize;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final Queue<RejectedRowDTO> rejectedRows = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger rejectedRowsReported = new AtomicInteger();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile String error;
+
+    UserImportJob(String id, String file, UserImportFormat format, long fileSize) {
+        this.id = id;
+        this.file = file;
+        this.format = format;
+        this.fileSize = fileSize;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        startNanos = System.nanoTime();
+        status = Status.RUNNING;
+    }
+
+    void rowRead(long bytesReadSoFar) {
+        rowsRead.incrementAndGet();
+        bytesRead.set(bytesReadSoFar);
+    }
+
+    void imported() {
+        imported.incrementAndGet();
+    }
+
+    void reject(long line, String reason) {
+        rejected.incrementAndGet();
+        if (rejectedRowsReported.getAndIncrement() < MAX_REJECTED_ROWS_REPORTED) {
+            rejectedRows.add(new RejectedRowDTO(line, reason));
+        }
+    }
+
+    /**
+     * Records the first failure; the job stops reading and ends as failed.
+     */
+    void fail(String reason) {
+        if (error == null) {
+            error = reason == null ? "Import failed" : reason;
+        }
+    }
+
+    /**
+     * The {@link System#nanoTime} at which the job finished.
+     */
+    long getFinishNanos() {
+        return finishNanos;
+    }
+
+    boolean hasFailed() {
+        return error != null;
+    }
+
+    void finish() {
+        finishNanos = System.nanoTime();
+        finishedAt = Instant.now();
+        status = error == null ? Status.COMPLETED : Status.FAILED;
+    }
+
+    public UserImportJobDTO toDTO() {
+        long elapsedNanos = startNanos == 0 ? 0 : (isFinished() ? finishNanos : System.nanoTime()) - startNanos;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : rowsRead.get() * 1e9 / elapsedNanos;
+        return new UserImportJobDTO(id, file, format, status, fileSize, bytesRead.get(), rowsRead.get(),
+                imported.get(), rejected.get(), rowsPerSecond, startedAt, finishedAt, error,
+                List.copyOf(rejectedRows));
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
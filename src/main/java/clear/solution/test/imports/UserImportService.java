@@ -0,0 +1,285 @@
+package clear.solution.test.imports;
+
+import clear.solution.test.dto.UserImportJobDTO;
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.imports.UserRowReader.Row;
+import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports users from NDJSON or CSV files in the import directory.
+ * <p>
+ * Jobs run one at a time. A job's reader thread streams the file through a fixed-size buffer and hands
+ * batches of rows to a pool of workers, which apply the {@link UserRequestDTO} validation rules and insert
+ * the valid rows through {@link UserService#createUsers}, where the minimum-age and email checks happen.
+ * The reader blocks while two batches per worker are in flight, and lines over
+ * {@code user.import.max-line-length} characters are rejected, so memory stays the same whatever the file.
+ * <p>
+ * Finished jobs are kept for {@code user.import.job-retention-ms}, and only the last
+ * {@code user.import.max-jobs} of them.
+ */
+@Component
+public class UserImportService {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private final UserService userService;
+    private final UserMapper userMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final int maxLineLength;
+    private final int maxJobs;
+    private final long jobRetentionNanos;
+    // Guarded by itself. Jobs run one at a time in the order they were queued, so they finish in this order.
+    private final Map<String, UserImportJob> jobs = new LinkedHashMap<>();
+    private final ExecutorService jobExecutor;
+    private final ExecutorService workers;
+
+    public UserImportService(UserService userService, UserMapper userMapper, Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${user.import.directory:imports}") String directory,
+                             @Value("${user.import.batch-size:1000}") int batchSize,
+                             @Value("${user.import.workers:4}") int workerCount,
+                             @Value("${user.import.max-jobs:100}") int maxJobs,
+                             @Value("${user.import.max-line-length:65536}") int maxLineLength,
+                             @Value("${user.import.job-retention-ms:3600000}") long jobRetentionMillis) {
+        if (batchSize < 1 || workerCount < 1 || maxLineLength < 1) {
+            throw new IllegalArgumentException("Import batch size, worker count and line length must be at least 1");
+        }
+        this.userService = userService;
+        this.userMapper = userMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = workerCount * 2;
+        this.maxLineLength = maxLineLength;
+        this.maxJobs = maxJobs;
+        this.jobRetentionNanos = TimeUnit.MILLISECONDS.toNanos(jobRetentionMillis);
+        this.jobExecutor = Executors.newSingleThreadExecutor(daemonThreads("user-import"));
+        this.workers = Executors.newFixedThreadPool(workerCount, daemonThreads("user-import-worker"));
+    }
+
+    /**
+     * Queues an import of {@code file}, resolved against the import directory. The format is taken from
+     * the file extension when not given.
+     */
+    public UserImportJobDTO start(String file, UserImportFormat format) {
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory) || !Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException("Import file not found: " + file);
+        }
+        UserImportFormat importFormat = format != null ? format : UserImportFormat.fromFileName(file);
+        long fileSize;
+        try {
+            fileSize = Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Import file not readable: " + file);
+        }
+        UserImportJob job = new UserImportJob(UUID.randomUUID().toString(), file, importFormat, fileSize);
+        synchronized (jobs) {
+            forgetFinishedJobs();
+            jobs.put(job.getId(), job);
+        }
+        jobExecutor.execute(() -> run(job, path, importFormat));
+        return job.toDTO();
+    }
+
+    public Optional<UserImportJobDTO> findJob(String jobId) {
+        UserImportJob job;
+        synchronized (jobs) {
+            forgetFinishedJobs();
+            job = jobs.get(jobId);
+        }
+        return Optional.ofNullable(job).map(UserImportJob::toDTO);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void run(UserImportJob job, Path path, UserImportFormat format) {
+        job.start();
+        Semaphore batchesInFlight = new Semaphore(maxBatchesInFlight);
+        try (CountingInputStream input = new CountingInputStream(Files.newInputStream(path));
+             UserRowReader rows = new UserRowReader(new BufferedReader(
+                     new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE), format, objectMapper,
+                     maxLineLength)) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            for (Row row = rows.next(); row != null && !job.hasFailed(); row = rows.next()) {
+                job.rowRead(input.count);
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    submit(job, batch, batchesInFlight);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !job.hasFailed()) {
+                submit(job, batch, batchesInFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+        }
+        awaitBatches(batchesInFlight);
+        job.finish();
+    }
+
+    /**
+     * Drops finished jobs past their retention, and the oldest finished ones beyond {@code maxJobs}.
+     */
+    private void forgetFinishedJobs() {
+        long finished = jobs.values().stream().filter(UserImportJob::isFinished).count();
+        long now = System.nanoTime();
+        Iterator<UserImportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            UserImportJob job = iterator.next();
+            if (!job.isFinished()) {
+                break;
+            }
+            if (finished > maxJobs || now - job.getFinishNanos() > jobRetentionNanos) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    /**
+     * Every permit back means every submitted batch has been inserted, so the counters are final.
+     */
+    private void awaitBatches(Semaphore batchesInFlight) {
+        try {
+            batchesInFlight.acquire(maxBatchesInFlight);
+        } catch (InterruptedException e) {
+            // Shutting down: batches dropped from the worker queue never give their permits back.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(UserImportJob job, List<Row> batch, Semaphore batchesInFlight) throws InterruptedException {
+        batchesInFlight.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    importBatch(job, batch);
+                } catch (RuntimeException e) {
+                    job.fail(e.getMessage());
+                } finally {
+                    batchesInFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batchesInFlight.release();
+            throw e;
+        }
+    }
+
+    private void importBatch(UserImportJob job, List<Row> batch) {
+        List<Row> acceptedRows = new ArrayList<>(batch.size());
+        List<User> acceptedUsers = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            String error = row.error() != null ? row.error() : validate(row.user());
+            if (error.isEmpty()) {
+                acceptedRows.add(row);
+                acceptedUsers.add(userMapper.mapToUser(row.user()));
+            } else {
+                job.reject(row.line(), error);
+            }
+        }
+        if (acceptedUsers.isEmpty()) {
+            return;
+        }
+        List<BatchCreateResult> results = userService.createUsers(acceptedUsers);
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isCreated()) {
+                job.imported();
+            } else {
+                job.reject(acceptedRows.get(i).line(), results.get(i).getError());
+            }
+        }
+    }
+
+    private String validate(UserRequestDTO userRequestDTO) {
+        StringBuilder errorMessage = new StringBuilder();
+        for (ConstraintViolation<UserRequestDTO> violation : validator.validate(userRequestDTO)) {
+            errorMessage.append(violation.getMessage()).append(". ");
+        }
+        return errorMessage.toString();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Counts the bytes taken from the file, so progress can be reported against its size. The reader
+     * buffers ahead, so the count runs up to a buffer ahead of the rows read.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        // Only the reader thread writes it.
+        private volatile long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
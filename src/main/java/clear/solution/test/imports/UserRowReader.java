@@ -0,0 +1,267 @@
+package clear.solution.test.imports;
+
+import clear.solution.test.dto.UserRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads an import file one line at a time. A line that can't be parsed becomes a row with an error
+ * instead of failing the import, so it is reported like any other rejected row. So does a line longer
+ * than the maximum length, which is skipped without being held in memory.
+ * <p>
+ * CSV files start with a header naming the {@link UserRequestDTO} fields in any order. An {@code id}
+ * column, as written by the export, is ignored; new ids are assigned. Fields may be quoted, with
+ * {@code ""} for a quote, and a quoted field may span lines, as the export writes values with line breaks;
+ * the length limit then applies to the whole row.
+ */
+class UserRowReader implements Closeable {
+    private static final List<String> CSV_COLUMNS = List.of("email", "firstName", "lastName", "birthDate",
+            "address", "phoneNumber");
+    private static final int CHUNK_SIZE = 8192;
+    private final Reader reader;
+    private final UserImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final int maxLineLength;
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private final StringBuilder lineText = new StringBuilder();
+    // Position of each CSV_COLUMNS column in a CSV row, or -1 when the file does not have it.
+    private final int[] csvPositions;
+    private int chunkPosition;
+    private int chunkLimit;
+    // The previous line ended with a carriage return, so a line feed right after it belongs to that line.
+    private boolean skipLineFeed;
+    // How the last line read ended: with a carriage return, and whether a line feed after it was skipped.
+    private boolean endedWithCarriageReturn;
+    private boolean skippedLineFeed;
+    private boolean lineTooLong;
+    private long line;
+
+    UserRowReader(Reader reader, UserImportFormat format, ObjectMapper objectMapper, int maxLineLength)
+            throws IOException {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.maxLineLength = maxLineLength;
+        this.csvPositions = format == UserImportFormat.CSV ? readCsvHeader() : null;
+    }
+
+    /**
+     * Returns the next non-blank row, or {@code null} at the end of the file.
+     */
+    Row next() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            if (lineTooLong) {
+                return new Row(line, null, "Line is longer than " + maxLineLength + " characters");
+            }
+        } while (text.isBlank());
+        long firstLine = line;
+        if (format == UserImportFormat.CSV) {
+            while (hasOpenQuote(text)) {
+                String lineBreak = endedWithCarriageReturn ? "\r" : "\n";
+                String nextLine = readLine();
+                if (nextLine == null) {
+                    // Reported as an unterminated field.
+                    break;
+                }
+                line++;
+                if (skippedLineFeed) {
+                    lineBreak = "\r\n";
+                }
+                if (lineTooLong || text.length() + lineBreak.length() + nextLine.length() > maxLineLength) {
+                    return new Row(firstLine, null, "Row is longer than " + maxLineLength + " characters");
+                }
+                text = text + lineBreak + nextLine;
+            }
+        }
+        try {
+            return new Row(firstLine, format == UserImportFormat.CSV ? parseCsv(text) : parseJson(text), null);
+        } catch (IllegalArgumentException e) {
+            return new Row(firstLine, null, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int[] readCsvHeader() throws IOException {
+        int[] positions = new int[CSV_COLUMNS.size()];
+        Arrays.fill(positions, -1);
+        String header = readLine();
+        if (header == null) {
+            return positions;
+        }
+        line++;
+        if (lineTooLong) {
+            throw new IllegalArgumentException("CSV header is longer than " + maxLineLength + " characters");
+        }
+        List<String> names = splitCsv(header);
+        for (int position = 0; position < names.size(); position++) {
+            int column = csvColumn(names.get(position).trim());
+            if (column >= 0) {
+                positions[column] = position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the next line without its terminator ({@code \n}, {@code \r\n} or {@code \r}), or {@code null}
+     * at the end of the file. A line over the maximum length comes back empty with {@code lineTooLong} set,
+     * after the rest of it has been read past.
+     */
+    private String readLine() throws IOException {
+        lineText.setLength(0);
+        lineTooLong = false;
+        endedWithCarriageReturn = false;
+        skippedLineFeed = false;
+        boolean empty = true;
+        while (true) {
+            if (chunkPosition == chunkLimit) {
+                chunkPosition = 0;
+                chunkLimit = Math.max(reader.read(chunk, 0, chunk.length), 0);
+                if (chunkLimit == 0) {
+                    return empty ? null : lineText.toString();
+                }
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (chunk[chunkPosition] == '\n') {
+                    chunkPosition++;
+                    skippedLineFeed = true;
+                    continue;
+                }
+            }
+            empty = false;
+            int start = chunkPosition;
+            while (chunkPosition < chunkLimit && chunk[chunkPosition] != '\n' && chunk[chunkPosition] != '\r') {
+                chunkPosition++;
+            }
+            appendToLine(start, chunkPosition);
+            if (chunkPosition < chunkLimit) {
+                skipLineFeed = chunk[chunkPosition++] == '\r';
+                endedWithCarriageReturn = skipLineFeed;
+                return lineText.toString();
+            }
+        }
+    }
+
+    private void appendToLine(int start, int end) {
+        if (lineTooLong) {
+            return;
+        }
+        if (lineText.length() + end - start > maxLineLength) {
+            lineTooLong = true;
+            lineText.setLength(0);
+            return;
+        }
+        lineText.append(chunk, start, end - start);
+    }
+
+    /**
+     * Returns the index of the named column in {@code CSV_COLUMNS}, or -1 for a column that is ignored.
+     */
+    private static int csvColumn(String name) {
+        for (int column = 0; column < CSV_COLUMNS.size(); column++) {
+            if (CSV_COLUMNS.get(column).equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        if ("id".equalsIgnoreCase(name)) {
+            return -1;
+        }
+        throw new IllegalArgumentException("Unknown CSV column: " + name);
+    }
+
+    private UserRequestDTO parseJson(String text) {
+        try {
+            return objectMapper.readValue(text, UserRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private UserRequestDTO parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        String birthDate = csvField(fields, 3);
+        try {
+            return new UserRequestDTO(csvField(fields, 0), csvField(fields, 1), csvField(fields, 2),
+                    birthDate == null ? null : LocalDate.parse(birthDate), csvField(fields, 4), csvField(fields, 5));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid birth date: " + birthDate);
+        }
+    }
+
+    private String csvField(List<String> fields, int column) {
+        int position = csvPositions[column];
+        if (position < 0 || position >= fields.size() || fields.get(position).isEmpty()) {
+            return null;
+        }
+        return fields.get(position);
+    }
+
+    /**
+     * Whether a quoted field is still open at the end of the text. Every quote opens or closes a field, and
+     * an escaped quote is two of them, so that is when the number of quotes is odd.
+     */
+    private static boolean hasOpenQuote(String text) {
+        int quotes = 0;
+        for (int i = text.indexOf('"'); i >= 0; i = text.indexOf('"', i + 1)) {
+            quotes++;
+        }
+        return quotes % 2 != 0;
+    }
+
+    private static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted CSV field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * One line of the file: either the parsed user or why it could not be parsed.
+     */
+    record Row(long line, UserRequestDTO user, String error) {
+    }
+}
@@ -0,0 +1,51 @@
+package clear.solution.test.index;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Number of users per birth date, kept in a Fenwick tree over epoch days, so the number of users born
+ * before a date is a prefix sum of O(log n) cells and no user is read to answer it. Only days from
+ * {@link #FIRST_DAY} up to {@link #END_DAY} have a cell; users born outside them are not counted here, and
+ * {@link BirthDateIndex} counts them from its keys instead.
+ * <p>
+ * Cells are updated atomically but one by one, so a count read while a write is in flight may or may not
+ * include that write.
+ */
+final class BirthDateCounts {
+    static final LocalDate FIRST_DAY = LocalDate.of(1800, 1, 1);
+    // 2^17 days reach into 2158.
+    private static final int DAYS = 1 << 17;
+    private static final long FIRST_EPOCH_DAY = FIRST_DAY.toEpochDay();
+    /**
+     * First day after the counted ones.
+     */
+    static final LocalDate END_DAY = FIRST_DAY.plusDays(DAYS);
+    private final AtomicLongArray tree = new AtomicLongArray(DAYS + 1);
+
+    void add(LocalDate birthDate, long delta) {
+        if (!isCounted(birthDate)) {
+            return;
+        }
+        int day = (int) (birthDate.toEpochDay() - FIRST_EPOCH_DAY);
+        for (int i = day + 1; i <= DAYS; i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+    }
+
+    /**
+     * Returns the number of counted users born strictly before the given date.
+     */
+    long countBefore(LocalDate date) {
+        int days = (int) Math.min(Math.max(date.toEpochDay() - FIRST_EPOCH_DAY, 0), DAYS);
+        long count = 0;
+        for (int i = days; i > 0; i -= i & -i) {
+            count += tree.get(i);
+        }
+        return count;
+    }
+
+    static boolean isCounted(LocalDate birthDate) {
+        return !birthDate.isBefore(FIRST_DAY) && birthDate.isBefore(END_DAY);
+    }
+}
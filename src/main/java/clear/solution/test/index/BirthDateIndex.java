@@ -0,0 +1,158 @@
+package clear.solution.test.index;
+
+import clear.solution.test.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Component
+public class BirthDateIndex {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private final NavigableSet<BirthDateKey> keys = new ConcurrentSkipListSet<>();
+    // ConcurrentSkipListSet.size() walks the whole set, so the size is tracked separately.
+    private final AtomicLong size = new AtomicLong();
+    private final BirthDateCounts counts = new BirthDateCounts();
+    private final int scanParallelism;
+
+    public BirthDateIndex(@Value("${user.range.parallelism:1}") int scanParallelism) {
+        if (scanParallelism < 1) {
+            throw new IllegalArgumentException("Range scan parallelism must be at least 1");
+        }
+        this.scanParallelism = scanParallelism;
+    }
+
+    public void add(User user) {
+        if (keys.add(keyOf(user))) {
+            counts.add(user.getBirthDate(), 1);
+            size.incrementAndGet();
+        }
+    }
+
+    public void addAll(Collection<User> users) {
+        users.forEach(this::add);
+    }
+
+    public void remove(User user) {
+        if (keys.remove(keyOf(user))) {
+            counts.add(user.getBirthDate(), -1);
+            size.decrementAndGet();
+        }
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of users born strictly between the given dates in O(log n), without scanning the
+     * index. Users born before {@link BirthDateCounts#FIRST_DAY} or from {@link BirthDateCounts#END_DAY} on
+     * have no count, so the parts of the range outside those days are counted by walking their keys, which
+     * only such users have. Under concurrent writes the count may be off by the writes in flight.
+     */
+    public long countBetween(LocalDate fromDate, LocalDate toDate) {
+        if (!fromDate.isBefore(toDate)) {
+            return 0;
+        }
+        // Prefix counts are read one after the other, so a concurrent delete could make the difference negative.
+        long count = Math.max(0, counts.countBefore(toDate) - counts.countBefore(fromDate.plusDays(1)));
+        if (fromDate.isBefore(BirthDateCounts.FIRST_DAY)) {
+            count += findIdsBetween(fromDate, min(toDate, BirthDateCounts.FIRST_DAY)).count();
+        }
+        LocalDate lastDay = BirthDateCounts.END_DAY.minusDays(1);
+        if (toDate.isAfter(BirthDateCounts.END_DAY)) {
+            count += findIdsBetween(fromDate.isAfter(lastDay) ? fromDate : lastDay, toDate).count();
+        }
+        return count;
+    }
+
+    /**
+     * Returns ids of users born strictly between the given dates, ordered by birth date and id.
+     */
+    public Stream<Long> findIdsBetween(LocalDate fromDate, LocalDate toDate) {
+        return findIdsBetween(fromDate, toDate, null);
+    }
+
+    /**
+     * Same as {@link #findIdsBetween(LocalDate, LocalDate)}, but starts strictly after the given key
+     * when it is not {@code null}. Used for keyset pagination, so the cost of a page does not depend
+     * on how many pages were read before it.
+     */
+    public Stream<Long> findIdsBetween(LocalDate fromDate, LocalDate toDate, BirthDateKey after) {
+        BirthDateKey lower = new BirthDateKey(fromDate, Long.MAX_VALUE);
+        if (after != null && after.compareTo(lower) > 0) {
+            lower = after;
+        }
+        BirthDateKey upper = new BirthDateKey(toDate, Long.MIN_VALUE);
+        if (lower.compareTo(upper) >= 0) {
+            return Stream.empty();
+        }
+        return keys.subSet(lower, false, upper, false)
+                .stream()
+                .map(BirthDateKey::id);
+    }
+
+    /**
+     * Resolves the users born strictly between the given dates, ordered by birth date and id, skipping
+     * ids the resolver no longer finds.
+     * <p>
+     * Resolving ids costs far more than walking the index, so with a parallelism above 1 the range is cut
+     * into consecutive birth-date chunks that are walked and resolved on the common fork-join pool. Chunks
+     * come back in range order, so the result is their concatenation and needs no merge. There are a few
+     * chunks per thread, so work stealing evens out chunks that hold more users than others.
+     */
+    public <T> List<T> findBetween(LocalDate fromDate, LocalDate toDate, Function<Long, Optional<T>> resolver) {
+        BirthDateKey lower = new BirthDateKey(fromDate, Long.MAX_VALUE);
+        BirthDateKey upper = new BirthDateKey(toDate, Long.MIN_VALUE);
+        if (lower.compareTo(upper) >= 0) {
+            return List.of();
+        }
+        long days = ChronoUnit.DAYS.between(fromDate, toDate);
+        int chunkCount = (int) Math.min(days, (long) scanParallelism * CHUNKS_PER_THREAD);
+        if (scanParallelism == 1 || chunkCount < 2) {
+            return Collections.unmodifiableList(resolve(lower, upper, resolver));
+        }
+        BirthDateKey[] bounds = new BirthDateKey[chunkCount + 1];
+        bounds[0] = lower;
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            // No user has id Long.MIN_VALUE, so an inner bound never excludes a user from both chunks.
+            bounds[chunk] = new BirthDateKey(fromDate.plusDays(days * chunk / chunkCount), Long.MIN_VALUE);
+        }
+        bounds[chunkCount] = upper;
+        List<List<T>> chunks = IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(chunk -> resolve(bounds[chunk], bounds[chunk + 1], resolver))
+                .toList();
+        List<T> users = new ArrayList<>(chunks.stream().mapToInt(List::size).sum());
+        chunks.forEach(users::addAll);
+        return Collections.unmodifiableList(users);
+    }
+
+    private <T> List<T> resolve(BirthDateKey lower, BirthDateKey upper, Function<Long, Optional<T>> resolver) {
+        List<T> resolved = new ArrayList<>();
+        for (BirthDateKey key : keys.subSet(lower, false, upper, false)) {
+            resolver.apply(key.id()).ifPresent(resolved::add);
+        }
+        return resolved;
+    }
+
+    private static LocalDate min(LocalDate date, LocalDate other) {
+        return date.isBefore(other) ? date : other;
+    }
+
+    private static BirthDateKey keyOf(User user) {
+        return new BirthDateKey(user.getBirthDate(), user.getId());
+    }
+}
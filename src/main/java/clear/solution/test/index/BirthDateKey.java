@@ -0,0 +1,14 @@
+package clear.solution.test.index;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+public record BirthDateKey(LocalDate birthDate, long id) implements Comparable<BirthDateKey> {
+    private static final Comparator<BirthDateKey> ORDER = Comparator.comparing(BirthDateKey::birthDate)
+            .thenComparingLong(BirthDateKey::id);
+
+    @Override
+    public int compareTo(BirthDateKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,50 @@
+package clear.solution.test.index;
+
+import clear.solution.test.exception.DuplicateEmailException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique index from normalized email to user id. Reservations use {@code putIfAbsent}, so when several
+ * writers race for the same address exactly one of them wins.
+ */
+@Component
+public class EmailIndex {
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    public void reserve(String email, Long id) {
+        Long owner = idsByEmail.putIfAbsent(normalize(email), id);
+        if (owner != null && !owner.equals(id)) {
+            throw new DuplicateEmailException("User with this email already exists: " + email);
+        }
+    }
+
+    public void release(String email, Long id) {
+        if (email != null) {
+            idsByEmail.remove(normalize(email), id);
+        }
+    }
+
+    public Optional<Long> findId(String email) {
+        return Optional.ofNullable(idsByEmail.get(normalize(email)));
+    }
+
+    public boolean isSameEmail(String email, String otherEmail) {
+        return email == null ? otherEmail == null : otherEmail != null && normalize(email).equals(normalize(otherEmail));
+    }
+
+    public long size() {
+        return idsByEmail.size();
+    }
+
+    private static String normalize(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
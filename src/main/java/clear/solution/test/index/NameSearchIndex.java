@@ -0,0 +1,344 @@
+package clear.solution.test.index;
+
+import clear.solution.test.entity.User;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalDouble;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Search index over first and last names. Names are split into normalized terms (lower case, without
+ * diacritics); a sorted term dictionary answers prefix lookups and a trigram index over the dictionary
+ * finds candidates for typo-tolerant matching, which are then confirmed with a bounded edit distance.
+ * <p>
+ * Every query term must match one of a user's terms. A user scores, per query term, 1.0 for an exact
+ * match, up to 0.9 for a prefix match and up to 0.5 for a fuzzy match; scores of the query terms add up.
+ * <p>
+ * Matches of a single-term query are collected best score first and only until there are {@code limit} of
+ * them, so a short prefix of a common name costs the ids it returns, not every id under the prefix. A query
+ * of several terms walks the ids of its rarest term and looks each of them up in the matches of the other
+ * terms, so no match is lost to a cap before the terms are intersected; only the result is cut to
+ * {@code limit}.
+ * <p>
+ * Only one thread may write at a time, which the user write loop guarantees. Searches take no lock; one
+ * that runs while a user's names change may still find the user by the old names or not yet by the new.
+ */
+@Component
+public class NameSearchIndex {
+    private static final double EXACT_SCORE = 1.0;
+    private static final double PREFIX_SCORE = 0.5;
+    private static final double PREFIX_COVERAGE_SCORE = 0.4;
+    private static final double FUZZY_SCORE = 0.5;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.25;
+    private static final int MAX_PREFIX_TERMS = 1_000;
+    private static final int MAX_FUZZY_CANDIDATES = 1_000;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final NavigableMap<String, Set<Long>> idsByTerm = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new ConcurrentHashMap<>();
+    // The skip list counts its entries one by one, so the size is kept here.
+    private final AtomicInteger termCount = new AtomicInteger();
+
+    public void add(User user) {
+        add(user.getId(), user.getFirstName(), user.getLastName());
+    }
+
+    public void addAll(Collection<User> users) {
+        for (User user : users) {
+            add(user);
+        }
+    }
+
+    public void add(Long id, String firstName, String lastName) {
+        terms(firstName, lastName).forEach(term -> addTerm(term, id));
+    }
+
+    public void remove(User user) {
+        remove(user.getId(), user.getFirstName(), user.getLastName());
+    }
+
+    public void remove(Long id, String firstName, String lastName) {
+        terms(firstName, lastName).forEach(term -> removeTerm(term, id));
+    }
+
+    /**
+     * Returns up to {@code limit} ids of the best matching users, best first; ties are broken by id.
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTerms = terms(query, null);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        if (queryTerms.size() == 1) {
+            return topK(scoreTerm(queryTerms.iterator().next(), limit), limit);
+        }
+        List<NavigableMap<Double, List<Set<Long>>>> termMatches = new ArrayList<>(queryTerms.size());
+        for (String queryTerm : queryTerms) {
+            NavigableMap<Double, List<Set<Long>>> matches = prefixMatches(queryTerm);
+            if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+                // Fuzzy matches score below every prefix match, so the maps share no score.
+                matches.putAll(fuzzyMatches(queryTerm));
+            }
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            termMatches.add(matches);
+        }
+        termMatches.sort(Comparator.comparingLong(NameSearchIndex::idCount));
+        Map<Long, Double> scores = new HashMap<>();
+        Set<Long> checkedIds = new HashSet<>();
+        for (List<Set<Long>> rarestIds : termMatches.get(0).values()) {
+            for (Set<Long> ids : rarestIds) {
+                for (Long id : ids) {
+                    if (checkedIds.add(id)) {
+                        score(termMatches, id).ifPresent(score -> scores.put(id, score));
+                    }
+                }
+            }
+        }
+        return topK(scores, limit);
+    }
+
+    public int termCount() {
+        return termCount.get();
+    }
+
+    /**
+     * Scores up to {@code maxCandidates} users matching the query term, taking the best scores and, among
+     * equal scores, the lowest ids. Prefix matches always score above fuzzy ones, and shorter terms above
+     * longer ones, so matches are added in that order until there are enough.
+     */
+    private Map<Long, Double> scoreTerm(String queryTerm, int maxCandidates) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (addBest(scores, prefixMatches(queryTerm), maxCandidates) && queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            addBest(scores, fuzzyMatches(queryTerm), maxCandidates);
+        }
+        return scores;
+    }
+
+    private NavigableMap<Double, List<Set<Long>>> prefixMatches(String queryTerm) {
+        NavigableMap<Double, List<Set<Long>>> prefixMatches = new TreeMap<>(Comparator.reverseOrder());
+        int prefixTerms = 0;
+        for (Map.Entry<String, Set<Long>> entry : idsByTerm.tailMap(queryTerm, true).entrySet()) {
+            String term = entry.getKey();
+            if (!term.startsWith(queryTerm) || prefixTerms++ == MAX_PREFIX_TERMS) {
+                break;
+            }
+            double score = term.length() == queryTerm.length()
+                    ? EXACT_SCORE
+                    : PREFIX_SCORE + PREFIX_COVERAGE_SCORE * queryTerm.length() / term.length();
+            prefixMatches.computeIfAbsent(score, key -> new ArrayList<>()).add(entry.getValue());
+        }
+        return prefixMatches;
+    }
+
+    private NavigableMap<Double, List<Set<Long>>> fuzzyMatches(String queryTerm) {
+        Set<String> queryTrigrams = trigrams(queryTerm);
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String term : termsByTrigram.getOrDefault(trigram, Set.of())) {
+                sharedTrigrams.merge(term, 1, Integer::sum);
+            }
+        }
+        int maxDistance = queryTerm.length() <= 5 ? 1 : 2;
+        NavigableMap<Double, List<Set<Long>>> matches = new TreeMap<>(Comparator.reverseOrder());
+        sharedTrigrams.entrySet().stream()
+                .filter(entry -> !entry.getKey().startsWith(queryTerm))
+                .filter(entry -> Math.abs(entry.getKey().length() - queryTerm.length()) <= maxDistance)
+                .filter(entry -> 2.0 * entry.getValue() / (queryTrigrams.size() + entry.getKey().length())
+                        >= MIN_TRIGRAM_SIMILARITY)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_FUZZY_CANDIDATES)
+                .forEach(entry -> {
+                    int distance = editDistance(queryTerm, entry.getKey(), maxDistance);
+                    if (distance <= maxDistance) {
+                        double similarity = 1.0 - (double) distance / Math.max(queryTerm.length(), entry.getKey().length());
+                        Set<Long> ids = idsByTerm.get(entry.getKey());
+                        // Null when the term was removed after the search found it.
+                        if (ids != null) {
+                            matches.computeIfAbsent(FUZZY_SCORE * similarity, key -> new ArrayList<>()).add(ids);
+                        }
+                    }
+                });
+        return matches;
+    }
+
+    private void addTerm(String term, Long id) {
+        Set<Long> ids = idsByTerm.get(term);
+        if (ids == null) {
+            ids = ConcurrentHashMap.newKeySet();
+            // Filled before it is published, so a search never finds the term without its first user.
+            ids.add(id);
+            idsByTerm.put(term, ids);
+            termCount.incrementAndGet();
+            for (String trigram : trigrams(term)) {
+                termsByTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(term);
+            }
+            return;
+        }
+        ids.add(id);
+    }
+
+    private void removeTerm(String term, Long id) {
+        Set<Long> ids = idsByTerm.get(term);
+        if (ids == null || !ids.remove(id) || !ids.isEmpty()) {
+            return;
+        }
+        idsByTerm.remove(term);
+        termCount.decrementAndGet();
+        for (String trigram : trigrams(term)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                termsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Adds the ids of the matches, best score first, to the users not scored yet, keeping the lowest ids
+     * of the score at which {@code maxCandidates} is reached. Returns whether there is room for more.
+     */
+    private static boolean addBest(Map<Long, Double> scores, NavigableMap<Double, List<Set<Long>>> matches,
+                                   int maxCandidates) {
+        for (Map.Entry<Double, List<Set<Long>>> match : matches.entrySet()) {
+            int room = maxCandidates - scores.size();
+            if (room <= 0) {
+                return false;
+            }
+            TreeSet<Long> lowestIds = new TreeSet<>();
+            for (Set<Long> ids : match.getValue()) {
+                for (Long id : ids) {
+                    if (!scores.containsKey(id) && lowestIds.add(id) && lowestIds.size() > room) {
+                        lowestIds.pollLast();
+                    }
+                }
+            }
+            lowestIds.forEach(id -> scores.put(id, match.getKey()));
+        }
+        return scores.size() < maxCandidates;
+    }
+
+    /**
+     * Adds up the best score of the user in the matches of every query term, or returns empty when one of
+     * the terms does not match the user.
+     */
+    private static OptionalDouble score(List<NavigableMap<Double, List<Set<Long>>>> termMatches, Long id) {
+        double score = 0;
+        for (NavigableMap<Double, List<Set<Long>>> matches : termMatches) {
+            OptionalDouble termScore = bestScore(matches, id);
+            if (termScore.isEmpty()) {
+                return OptionalDouble.empty();
+            }
+            score += termScore.getAsDouble();
+        }
+        return OptionalDouble.of(score);
+    }
+
+    private static OptionalDouble bestScore(NavigableMap<Double, List<Set<Long>>> matches, Long id) {
+        for (Map.Entry<Double, List<Set<Long>>> match : matches.entrySet()) {
+            for (Set<Long> ids : match.getValue()) {
+                if (ids.contains(id)) {
+                    return OptionalDouble.of(match.getKey());
+                }
+            }
+        }
+        return OptionalDouble.empty();
+    }
+
+    private static long idCount(NavigableMap<Double, List<Set<Long>>> matches) {
+        return matches.values().stream().flatMap(List::stream).mapToLong(Set::size).sum();
+    }
+
+    private static List<Long> topK(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    static Set<String> terms(String firstName, String lastName) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String name : new String[]{firstName, lastName}) {
+            if (name == null) {
+                continue;
+            }
+            String normalized = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            for (String term : TERM_SEPARATOR.split(normalized)) {
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = " " + term + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Levenshtein distance, giving up with {@code maxDistance + 1} as soon as it is exceeded.
+     */
+    private static int editDistance(String source, String target, int maxDistance) {
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int substitution = previous[j - 1] + (source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[target.length()];
+    }
+}
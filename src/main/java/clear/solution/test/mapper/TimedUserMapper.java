@@ -0,0 +1,32 @@
+package clear.solution.test.mapper;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.metrics.RequestStage;
+import clear.solution.test.metrics.RequestTimings;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the generated {@link UserMapper} as the {@link RequestStage#MAPPING} stage of timed requests.
+ */
+@Primary
+@Component
+public class TimedUserMapper implements UserMapper {
+    private final UserMapperImpl delegate;
+
+    public TimedUserMapper(UserMapperImpl delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User mapToUser(UserRequestDTO request) {
+        return RequestTimings.time(RequestStage.MAPPING, () -> delegate.mapToUser(request));
+    }
+
+    @Override
+    public UserResponseDTO mapToUserResponse(User user) {
+        return RequestTimings.time(RequestStage.MAPPING, () -> delegate.mapToUserResponse(user));
+    }
+}
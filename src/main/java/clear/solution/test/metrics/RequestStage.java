@@ -0,0 +1,29 @@
+package clear.solution.test.metrics;
+
+/**
+ * Stages of a {@code /users} request timed by {@link RequestTimings}, named as they appear in the
+ * {@code Server-Timing} header.
+ */
+public enum RequestStage {
+    READ("read", "Request body parsing"),
+    VALIDATION("validation", "Bean Validation"),
+    MAPPING("mapping", "UserMapper"),
+    SERVICE("service", "UserService"),
+    SERIALIZATION("serialization", "JSON serialization");
+
+    private final String metricName;
+    private final String description;
+
+    RequestStage(String metricName, String description) {
+        this.metricName = metricName;
+        this.description = description;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
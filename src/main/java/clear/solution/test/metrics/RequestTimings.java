@@ -0,0 +1,111 @@
+package clear.solution.test.metrics;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * Time spent in each {@link RequestStage} of the request being handled on the current thread. Only
+ * requests picked by {@link ServerTimingFilter} are timed; for every other request {@link #current()} is
+ * {@code null} and {@link #time} just runs the action, so instrumented code costs a thread-local lookup.
+ * A stage that runs more than once, e.g. mapping every user of a range result, accumulates its time.
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startedNanos = System.nanoTime();
+    private final boolean serverTimingHeader;
+    private final long[] stageNanos = new long[RequestStage.values().length];
+    private final long[] stageStartedNanos = new long[RequestStage.values().length];
+    private int stagesRun;
+
+    private RequestTimings(boolean serverTimingHeader) {
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    static RequestTimings start(boolean serverTimingHeader) {
+        RequestTimings timings = new RequestTimings(serverTimingHeader);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T time(RequestStage stage, Supplier<T> action) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return action.get();
+        }
+        long started = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timings.add(stage, System.nanoTime() - started);
+        }
+    }
+
+    public static void time(RequestStage stage, Runnable action) {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Whether the timings are sent back in a {@code Server-Timing} header, rather than only recorded as a
+     * JFR event.
+     */
+    public boolean isServerTimingHeader() {
+        return serverTimingHeader;
+    }
+
+    public void add(RequestStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+        stagesRun |= 1 << stage.ordinal();
+    }
+
+    /**
+     * Marks the start of a stage whose end is reported by a separate callback; see {@link #endStage}.
+     */
+    public void startStage(RequestStage stage) {
+        stageStartedNanos[stage.ordinal()] = System.nanoTime();
+    }
+
+    public void endStage(RequestStage stage) {
+        add(stage, System.nanoTime() - stageStartedNanos[stage.ordinal()]);
+    }
+
+    public long getStageNanos(RequestStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startedNanos;
+    }
+
+    /**
+     * Formats the stages that ran so far, plus {@code total} for the time since the request started, as a
+     * {@code Server-Timing} header value with durations in milliseconds.
+     */
+    public String toServerTimingHeader() {
+        StringJoiner header = new StringJoiner(", ");
+        for (RequestStage stage : RequestStage.values()) {
+            if ((stagesRun & 1 << stage.ordinal()) != 0) {
+                header.add(metric(stage.getMetricName(), stageNanos[stage.ordinal()])
+                        + ";desc=\"" + stage.getDescription() + "\"");
+            }
+        }
+        header.add(metric("total", getElapsedNanos()));
+        return header.toString();
+    }
+
+    private static String metric(String name, long nanos) {
+        return name + ";dur=" + String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,64 @@
+package clear.solution.test.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times the stages of a sample of requests. A request is timed when it is sampled for the
+ * {@code Server-Timing} header, at {@code user.timing.sample-rate}, or when {@link UserRequestEvent} is
+ * enabled in a running flight recording. Other requests pass through with one random number drawn.
+ * <p>
+ * JSON responses get the header from {@link clear.solution.test.converter.TimedJsonHttpMessageConverter}
+ * once their body is serialized. Other responses get it here, unless they are committed by then.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final double sampleRate;
+
+    public ServerTimingFilter(double sampleRate) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("user.timing.sample-rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean sampled = sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        UserRequestEvent event = new UserRequestEvent();
+        if (!sampled && !event.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        event.begin();
+        RequestTimings timings = RequestTimings.start(sampled);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTimings.clear();
+            if (sampled && !response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                response.addHeader(SERVER_TIMING, timings.toServerTimingHeader());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.uri = request.getRequestURI();
+                event.status = response.getStatus();
+                event.readTime = timings.getStageNanos(RequestStage.READ);
+                event.validationTime = timings.getStageNanos(RequestStage.VALIDATION);
+                event.mappingTime = timings.getStageNanos(RequestStage.MAPPING);
+                event.serviceTime = timings.getStageNanos(RequestStage.SERVICE);
+                event.serializationTime = timings.getStageNanos(RequestStage.SERIALIZATION);
+                event.commit();
+            }
+        }
+    }
+}
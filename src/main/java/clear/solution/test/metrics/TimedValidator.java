@@ -0,0 +1,25 @@
+package clear.solution.test.metrics;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+/**
+ * The Bean Validation validator used for {@code @Validated} request bodies, timing each validation as the
+ * {@link RequestStage#VALIDATION} stage.
+ */
+public class TimedValidator extends SpringValidatorAdapter {
+
+    public TimedValidator(jakarta.validation.Validator targetValidator) {
+        super(targetValidator);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        RequestTimings.time(RequestStage.VALIDATION, () -> super.validate(target, errors));
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        RequestTimings.time(RequestStage.VALIDATION, () -> super.validate(target, errors, validationHints));
+    }
+}
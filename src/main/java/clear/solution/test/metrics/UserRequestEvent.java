@@ -0,0 +1,50 @@
+package clear.solution.test.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one {@code /users} request, with the time spent in each {@link RequestStage}. The event's
+ * duration is the whole request. Enabled like any JDK event, e.g. with
+ * {@code -XX:StartFlightRecording:settings=profile} or in a custom {@code .jfc} file, where a threshold
+ * keeps only slow requests.
+ */
+@Name("clear.solution.test.UserRequest")
+@Label("User Request")
+@Category({"Users", "HTTP"})
+@Description("A /users request with the time spent in each stage")
+@StackTrace(false)
+class UserRequestEvent extends jdk.jfr.Event {
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+
+    @Label("Read")
+    @Timespan(Timespan.NANOSECONDS)
+    long readTime;
+
+    @Label("Validation")
+    @Timespan(Timespan.NANOSECONDS)
+    long validationTime;
+
+    @Label("Mapping")
+    @Timespan(Timespan.NANOSECONDS)
+    long mappingTime;
+
+    @Label("Service")
+    @Timespan(Timespan.NANOSECONDS)
+    long serviceTime;
+
+    @Label("Serialization")
+    @Timespan(Timespan.NANOSECONDS)
+    long serializationTime;
+}
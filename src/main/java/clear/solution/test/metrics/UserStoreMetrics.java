@@ -0,0 +1,78 @@
+package clear.solution.test.metrics;
+
+import clear.solution.test.cache.BirthDateRangeCache;
+import clear.solution.test.cache.UserJsonCache;
+import clear.solution.test.changelog.UserChangeLog;
+import clear.solution.test.index.BirthDateIndex;
+import clear.solution.test.index.EmailIndex;
+import clear.solution.test.index.NameSearchIndex;
+import clear.solution.test.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges for the size of the user store, its secondary indexes and the response caches, plus the
+ * cache hit and miss counts and the number of changes written to the change log. They are only
+ * evaluated when the registry is scraped, and every size used here is O(1).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStoreMetrics implements MeterBinder {
+    private final UserRepository userRepository;
+    private final BirthDateIndex birthDateIndex;
+    private final EmailIndex emailIndex;
+    private final NameSearchIndex nameSearchIndex;
+    private final BirthDateRangeCache birthDateRangeCache;
+    private final UserJsonCache userJsonCache;
+    private final UserChangeLog userChangeLog;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.store.size", userRepository, UserRepository::count)
+                .description("Number of users in the store")
+                .baseUnit("users")
+                .register(registry);
+        Gauge.builder("users.index.size", birthDateIndex, BirthDateIndex::size)
+                .description("Number of entries in a secondary index")
+                .tag("index", "birthDate")
+                .register(registry);
+        Gauge.builder("users.index.size", emailIndex, EmailIndex::size)
+                .description("Number of entries in a secondary index")
+                .tag("index", "email")
+                .register(registry);
+        Gauge.builder("users.index.size", nameSearchIndex, NameSearchIndex::termCount)
+                .description("Number of entries in a secondary index")
+                .tag("index", "nameTerms")
+                .register(registry);
+        Gauge.builder("users.range.cache.size", birthDateRangeCache, cache -> cache.stats().getSize())
+                .description("Number of ranges held by the range cache")
+                .register(registry);
+        FunctionCounter.builder("users.range.cache.requests", birthDateRangeCache, cache -> cache.stats().getHits())
+                .description("Range cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("users.range.cache.requests", birthDateRangeCache, cache -> cache.stats().getMisses())
+                .description("Range cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("users.json.cache.size", userJsonCache, UserJsonCache::size)
+                .description("Number of users held by the JSON cache")
+                .baseUnit("users")
+                .register(registry);
+        FunctionCounter.builder("users.json.cache.requests", userJsonCache, UserJsonCache::hitCount)
+                .description("JSON cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("users.json.cache.requests", userJsonCache, UserJsonCache::missCount)
+                .description("JSON cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("users.changes", userChangeLog, UserChangeLog::lastSequence)
+                .description("Changes written to the change log")
+                .register(registry);
+    }
+}
@@ -0,0 +1,262 @@
+package clear.solution.test.persistence;
+
+import clear.solution.test.entity.User;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The {@code users} table, accessed with plain JDBC and standard SQL, so any driver on the classpath
+ * can be used. The table is created when it does not exist, along with a one-row table that keeps the id
+ * sequence, so ids of deleted users are not handed out again after a restart.
+ * <p>
+ * Reads borrow one of a fixed set of connections. Batches are written on a connection of their own, in
+ * one transaction, so a batch is either stored completely or not at all.
+ */
+public class JdbcUserTable implements AutoCloseable {
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS users ("
+            + "id BIGINT PRIMARY KEY, email VARCHAR(" + User.MAX_EMAIL_LENGTH + ") NOT NULL, "
+            + "first_name VARCHAR(" + User.MAX_NAME_LENGTH + ") NOT NULL, "
+            + "last_name VARCHAR(" + User.MAX_NAME_LENGTH + ") NOT NULL, birth_date DATE NOT NULL, "
+            + "address VARCHAR(" + User.MAX_ADDRESS_LENGTH + "), "
+            + "phone_number VARCHAR(" + User.MAX_PHONE_NUMBER_LENGTH + "))";
+    private static final String CREATE_SEQUENCE_TABLE = "CREATE TABLE IF NOT EXISTS user_id_sequence ("
+            + "next_id BIGINT NOT NULL)";
+    private static final String COLUMNS = "id, email, first_name, last_name, birth_date, address, phone_number";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM users WHERE id = ?";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM users ORDER BY id";
+    private static final String SELECT_NEXT_ID = "SELECT next_id FROM user_id_sequence";
+    private static final String INSERT_NEXT_ID = "INSERT INTO user_id_sequence (next_id) "
+            + "SELECT COALESCE(MAX(id), 0) + 1 FROM users";
+    private static final String UPDATE_NEXT_ID = "UPDATE user_id_sequence SET next_id = ? WHERE next_id < ?";
+    private static final String SELECT_COUNT = "SELECT COUNT(*) FROM users";
+    private static final String INSERT = "INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE users SET email = ?, first_name = ?, last_name = ?, "
+            + "birth_date = ?, address = ?, phone_number = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM users WHERE id = ?";
+    private static final int FETCH_SIZE = 1_000;
+
+    private final Connection writeConnection;
+    private final BlockingQueue<Connection> readConnections;
+
+    private JdbcUserTable(Connection writeConnection, BlockingQueue<Connection> readConnections) {
+        this.writeConnection = writeConnection;
+        this.readConnections = readConnections;
+    }
+
+    public static JdbcUserTable open(String url, String username, String password, int readConnectionCount)
+            throws SQLException {
+        if (readConnectionCount < 1) {
+            throw new IllegalArgumentException("At least one read connection is required");
+        }
+        Connection writeConnection = DriverManager.getConnection(url, username, password);
+        BlockingQueue<Connection> readConnections = new ArrayBlockingQueue<>(readConnectionCount);
+        try {
+            try (Statement statement = writeConnection.createStatement()) {
+                statement.execute(CREATE_TABLE);
+                statement.execute(CREATE_SEQUENCE_TABLE);
+                try (ResultSet row = statement.executeQuery(SELECT_NEXT_ID)) {
+                    if (!row.next()) {
+                        statement.executeUpdate(INSERT_NEXT_ID);
+                    }
+                }
+            }
+            writeConnection.setAutoCommit(false);
+            for (int i = 0; i < readConnectionCount; i++) {
+                readConnections.add(DriverManager.getConnection(url, username, password));
+            }
+        } catch (SQLException e) {
+            closeAll(writeConnection, readConnections);
+            throw e;
+        }
+        return new JdbcUserTable(writeConnection, readConnections);
+    }
+
+    public Optional<User> find(long id) throws SQLException {
+        Connection connection = borrow();
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+            statement.setLong(1, id);
+            try (ResultSet row = statement.executeQuery()) {
+                return row.next() ? Optional.of(toUser(row)) : Optional.empty();
+            }
+        } finally {
+            readConnections.add(connection);
+        }
+    }
+
+    public long nextId() throws SQLException {
+        return queryLong(SELECT_NEXT_ID);
+    }
+
+    public long count() throws SQLException {
+        return queryLong(SELECT_COUNT);
+    }
+
+    /**
+     * Streams every row in id order. The stream holds a read connection until it is closed.
+     */
+    public Stream<User> findAll() throws SQLException {
+        Connection connection = borrow();
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(SELECT_ALL);
+            statement.setFetchSize(FETCH_SIZE);
+            ResultSet rows = statement.executeQuery();
+            PreparedStatement openStatement = statement;
+            return StreamSupport.stream(new Spliterators.AbstractSpliterator<User>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super User> action) {
+                    try {
+                        if (!rows.next()) {
+                            return false;
+                        }
+                        action.accept(toUser(rows));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Failed to read users", e);
+                    }
+                }
+            }, false).onClose(() -> {
+                try {
+                    openStatement.close();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to close user query", e);
+                } finally {
+                    readConnections.add(connection);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            if (statement != null) {
+                statement.close();
+            }
+            readConnections.add(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes one batch of changes, and moves the id sequence forward to {@code nextId}, in a single
+     * transaction. The caller must not write batches concurrently.
+     */
+    public void write(Collection<User> inserts, Collection<User> updates, Collection<Long> deletes, long nextId)
+            throws SQLException {
+        try {
+            if (!inserts.isEmpty()) {
+                try (PreparedStatement statement = writeConnection.prepareStatement(INSERT)) {
+                    for (User user : inserts) {
+                        statement.setLong(1, user.getId());
+                        setFields(statement, 2, user);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            if (!updates.isEmpty()) {
+                try (PreparedStatement statement = writeConnection.prepareStatement(UPDATE)) {
+                    for (User user : updates) {
+                        setFields(statement, 1, user);
+                        statement.setLong(7, user.getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            if (!deletes.isEmpty()) {
+                try (PreparedStatement statement = writeConnection.prepareStatement(DELETE)) {
+                    for (Long id : deletes) {
+                        statement.setLong(1, id);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            try (PreparedStatement statement = writeConnection.prepareStatement(UPDATE_NEXT_ID)) {
+                statement.setLong(1, nextId);
+                statement.setLong(2, nextId);
+                statement.executeUpdate();
+            }
+            writeConnection.commit();
+        } catch (SQLException | RuntimeException e) {
+            writeConnection.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closeAll(writeConnection, readConnections);
+    }
+
+    private Connection borrow() throws SQLException {
+        try {
+            return readConnections.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        Connection connection = borrow();
+        try (Statement statement = connection.createStatement(); ResultSet row = statement.executeQuery(sql)) {
+            row.next();
+            return row.getLong(1);
+        } finally {
+            readConnections.add(connection);
+        }
+    }
+
+    private static void setFields(PreparedStatement statement, int firstIndex, User user) throws SQLException {
+        statement.setString(firstIndex, user.getEmail());
+        statement.setString(firstIndex + 1, user.getFirstName());
+        statement.setString(firstIndex + 2, user.getLastName());
+        statement.setDate(firstIndex + 3, Date.valueOf(user.getBirthDate()));
+        setNullableString(statement, firstIndex + 4, user.getAddress());
+        setNullableString(statement, firstIndex + 5, user.getPhoneNumber());
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private static User toUser(ResultSet row) throws SQLException {
+        return new User(row.getLong(1), row.getString(2), row.getString(3), row.getString(4),
+                row.getDate(5).toLocalDate(), row.getString(6), row.getString(7));
+    }
+
+    private static void closeAll(Connection writeConnection, Collection<Connection> readConnections)
+            throws SQLException {
+        SQLException failure = null;
+        for (Connection connection : readConnections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        writeConnection.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
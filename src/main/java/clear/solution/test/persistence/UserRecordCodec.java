@@ -0,0 +1,84 @@
+package clear.solution.test.persistence;
+
+import clear.solution.test.entity.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Binary layout of a user shared by the write-ahead log and snapshots: id, birth date as epoch day and
+ * the string fields as length-prefixed UTF-8, where a length of -1 stands for {@code null}.
+ */
+final class UserRecordCodec {
+    private static final int NULL_LENGTH = -1;
+    private static final int NULL_EPOCH_DAY = Integer.MIN_VALUE;
+    private static final int FIXED_SIZE = Long.BYTES + Integer.BYTES + 5 * Integer.BYTES;
+
+    private UserRecordCodec() {
+    }
+
+    static byte[][] encodeStrings(User user) {
+        return new byte[][]{
+                toBytes(user.getEmail()),
+                toBytes(user.getFirstName()),
+                toBytes(user.getLastName()),
+                toBytes(user.getAddress()),
+                toBytes(user.getPhoneNumber())
+        };
+    }
+
+    static int encodedSize(byte[][] strings) {
+        int size = FIXED_SIZE;
+        for (byte[] string : strings) {
+            size += string == null ? 0 : string.length;
+        }
+        return size;
+    }
+
+    static void write(ByteBuffer buffer, User user, byte[][] strings) {
+        buffer.putLong(user.getId());
+        buffer.putInt(user.getBirthDate() == null ? NULL_EPOCH_DAY : (int) user.getBirthDate().toEpochDay());
+        for (byte[] string : strings) {
+            if (string == null) {
+                buffer.putInt(NULL_LENGTH);
+            } else {
+                buffer.putInt(string.length);
+                buffer.put(string);
+            }
+        }
+    }
+
+    static User read(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        int epochDay = buffer.getInt();
+        return new User(id,
+                readString(buffer),
+                readString(buffer),
+                readString(buffer),
+                epochDay == NULL_EPOCH_DAY ? null : LocalDate.ofEpochDay(epochDay),
+                readString(buffer),
+                readString(buffer));
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
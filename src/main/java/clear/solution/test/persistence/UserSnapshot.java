@@ -0,0 +1,122 @@
+package clear.solution.test.persistence;
+
+import clear.solution.test.entity.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Compacted image of the user store. The header records the first write-ahead log generation that is
+ * not covered by the snapshot, so recovery loads the snapshot and replays only the log tail.
+ * <p>
+ * Snapshots are written to a temporary file, forced and atomically renamed, so a crash never leaves a
+ * partial snapshot behind. They are read back through memory-mapped windows.
+ */
+public final class UserSnapshot {
+    private static final long MAGIC = 0x5553455253534e50L;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + 3 * Long.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final long MAX_MAPPED_WINDOW = 256L << 20;
+    private static final String FILE_NAME = "users.snapshot";
+
+    private UserSnapshot() {
+    }
+
+    public static void write(Path directory, Header header, Iterator<User> users) throws IOException {
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            buffer.position(HEADER_SIZE);
+            while (users.hasNext()) {
+                User user = users.next();
+                byte[][] strings = UserRecordCodec.encodeStrings(user);
+                int length = UserRecordCodec.encodedSize(strings);
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    drain(channel, buffer);
+                    if (buffer.capacity() < Integer.BYTES + length) {
+                        buffer = ByteBuffer.allocateDirect(Integer.BYTES + length);
+                    }
+                }
+                buffer.putInt(length);
+                UserRecordCodec.write(buffer, user, strings);
+                count++;
+            }
+            drain(channel, buffer);
+            buffer.clear();
+            buffer.putLong(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(header.walGeneration())
+                    .putLong(header.nextId())
+                    .putLong(count)
+                    .flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static Optional<Header> read(Path directory, Consumer<User> consumer) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer window = map(channel, 0, HEADER_SIZE, size);
+            if (window.getLong() != MAGIC || window.getInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported user snapshot format: " + path);
+            }
+            Header header = new Header(window.getLong(), window.getLong());
+            long count = window.getLong();
+            long windowStart = 0;
+            for (long i = 0; i < count; i++) {
+                if (window.remaining() < Integer.BYTES) {
+                    windowStart += window.position();
+                    window = map(channel, windowStart, Integer.BYTES, size);
+                }
+                int length = window.getInt(window.position());
+                if (window.remaining() < Integer.BYTES + length) {
+                    windowStart += window.position();
+                    window = map(channel, windowStart, Integer.BYTES + length, size);
+                }
+                window.position(window.position() + Integer.BYTES);
+                consumer.accept(UserRecordCodec.read(window));
+            }
+            return Optional.of(header);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, int required, long size) throws IOException {
+        if (position + required > size) {
+            throw new IOException("User snapshot is truncated at byte " + position);
+        }
+        long length = Math.max(required, Math.min(MAX_MAPPED_WINDOW, size - position));
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public record Header(long walGeneration, long nextId) {
+    }
+}
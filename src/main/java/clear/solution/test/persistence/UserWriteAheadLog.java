@@ -0,0 +1,380 @@
+package clear.solution.test.persistence;
+
+import clear.solution.test.entity.User;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of user mutations, split into numbered segments so that a snapshot can cover
+ * everything before a segment boundary.
+ * <p>
+ * Each record is {@code [int payloadLength][int crc32][payload]} where the payload starts with the
+ * operation byte. Appends only write to the channel; {@link #awaitDurable(long)} implements group
+ * commit: the first waiting thread forces the channel on behalf of every record appended so far while
+ * the others wait for it, so concurrent writers share a single fsync.
+ * <p>
+ * An append that fails partway is cut off the segment again, so later records never follow a torn one that
+ * replay would stop at. If that fails too, or an fsync fails, what the segment holds is unknown: the log is
+ * then failed and rejects appends, syncs and rotations until it is recovered by a restart.
+ */
+@Slf4j
+public class UserWriteAheadLog implements Closeable {
+    public static final byte CREATE = 1;
+    public static final byte UPDATE = 2;
+    public static final byte DELETE = 3;
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d{19})\\.log");
+
+    private final Path directory;
+    private final CRC32 crc = new CRC32();
+    private final Object durabilityMonitor = new Object();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private FileChannel channel;
+    private long generation;
+    private long appendedSequence;
+    private long recordsInSegment;
+    private long segmentSize;
+    private volatile IOException failure;
+    private long durableSequence;
+    private boolean forceInProgress;
+
+    private UserWriteAheadLog(Path directory, long generation) throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = openSegment(directory, generation);
+        this.segmentSize = channel.size();
+    }
+
+    public static UserWriteAheadLog open(Path directory, long generation) throws IOException {
+        return new UserWriteAheadLog(directory, generation);
+    }
+
+    public synchronized long append(byte operation, User user) throws IOException {
+        buffer.clear();
+        putUserRecord(operation, user);
+        return write(1);
+    }
+
+    public synchronized long appendAll(byte operation, Collection<User> users) throws IOException {
+        buffer.clear();
+        for (User user : users) {
+            putUserRecord(operation, user);
+        }
+        return write(users.size());
+    }
+
+    public synchronized long appendDelete(long id) throws IOException {
+        buffer.clear();
+        int start = beginRecord(Byte.BYTES + Long.BYTES);
+        buffer.put(DELETE);
+        buffer.putLong(id);
+        endRecord(start);
+        return write(1);
+    }
+
+    /**
+     * Blocks until every record up to the given sequence number has been forced to disk.
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        synchronized (durabilityMonitor) {
+            while (durableSequence < sequence && forceInProgress) {
+                try {
+                    durabilityMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the write-ahead log");
+                }
+            }
+            if (durableSequence >= sequence) {
+                return;
+            }
+            checkNotFailed();
+            forceInProgress = true;
+        }
+        long target;
+        FileChannel current;
+        synchronized (this) {
+            target = appendedSequence;
+            current = channel;
+        }
+        boolean forced = false;
+        try {
+            current.force(false);
+            forced = true;
+        } catch (ClosedChannelException e) {
+            synchronized (this) {
+                // a rotation forced and closed the segment underneath us
+                forced = current != channel;
+            }
+            if (!forced) {
+                fail(e);
+                throw e;
+            }
+        } catch (IOException e) {
+            // The kernel may have dropped the pages it failed to write, so a later fsync proves nothing.
+            fail(e);
+            throw e;
+        } finally {
+            synchronized (durabilityMonitor) {
+                forceInProgress = false;
+                if (forced) {
+                    durableSequence = Math.max(durableSequence, target);
+                }
+                durabilityMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Forces and closes the current segment and starts a new one.
+     *
+     * @return the generation of the new segment; records before it are covered by a snapshot taken now
+     */
+    public synchronized long rotate() throws IOException {
+        checkNotFailed();
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            fail(e);
+            throw e;
+        }
+        channel.close();
+        synchronized (durabilityMonitor) {
+            durableSequence = Math.max(durableSequence, appendedSequence);
+            durabilityMonitor.notifyAll();
+        }
+        generation++;
+        recordsInSegment = 0;
+        channel = openSegment(directory, generation);
+        segmentSize = channel.size();
+        return generation;
+    }
+
+    public synchronized long getRecordsInSegment() {
+        return recordsInSegment;
+    }
+
+    /**
+     * Tells whether the log failed in a way that leaves the segment's content unknown.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public void deleteSegmentsBefore(long firstKeptGeneration) throws IOException {
+        for (long segment : listGenerations(directory)) {
+            if (segment < firstKeptGeneration) {
+                Files.deleteIfExists(segmentPath(directory, segment));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                if (failure == null) {
+                    channel.force(false);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Replays all segments starting with the given generation in order. A torn or corrupt record ends
+     * the replay and the segment is truncated right before it.
+     *
+     * @return the last replayed generation, or {@code fromGeneration - 1} when there is none
+     */
+    public static long replay(Path directory, long fromGeneration, Consumer<Entry> consumer) throws IOException {
+        long lastGeneration = fromGeneration - 1;
+        for (long segment : listGenerations(directory)) {
+            if (segment < fromGeneration) {
+                continue;
+            }
+            replaySegment(segmentPath(directory, segment), consumer);
+            lastGeneration = segment;
+        }
+        return lastGeneration;
+    }
+
+    private static void replaySegment(Path path, Consumer<Entry> consumer) throws IOException {
+        try (FileChannel segment = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = segment.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            ByteBuffer payload = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+            CRC32 checksum = new CRC32();
+            while (position + RECORD_HEADER_SIZE <= size) {
+                header.clear();
+                readFully(segment, header, position);
+                header.flip();
+                int length = header.getInt();
+                int expectedCrc = header.getInt();
+                if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+                    break;
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(length);
+                }
+                payload.clear().limit(length);
+                readFully(segment, payload, position + RECORD_HEADER_SIZE);
+                checksum.reset();
+                checksum.update(payload.array(), 0, length);
+                if ((int) checksum.getValue() != expectedCrc) {
+                    break;
+                }
+                payload.flip();
+                consumer.accept(decode(payload));
+                position += RECORD_HEADER_SIZE + length;
+            }
+            if (position < size) {
+                log.warn("Truncating write-ahead log segment {} at byte {} of {}", path, position, size);
+                segment.truncate(position);
+            }
+        }
+    }
+
+    private static Entry decode(ByteBuffer payload) {
+        byte operation = payload.get();
+        if (operation == DELETE) {
+            return new Entry(operation, payload.getLong(), null);
+        }
+        User user = UserRecordCodec.read(payload);
+        return new Entry(operation, user.getId(), user);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of write-ahead log segment");
+            }
+            position += read;
+        }
+    }
+
+    private void putUserRecord(byte operation, User user) {
+        byte[][] strings = UserRecordCodec.encodeStrings(user);
+        int start = beginRecord(Byte.BYTES + UserRecordCodec.encodedSize(strings));
+        buffer.put(operation);
+        UserRecordCodec.write(buffer, user, strings);
+        endRecord(start);
+    }
+
+    private int beginRecord(int payloadLength) {
+        ensureCapacity(RECORD_HEADER_SIZE + payloadLength);
+        int start = buffer.position();
+        buffer.putInt(payloadLength);
+        buffer.putInt(0);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        int payloadStart = start + RECORD_HEADER_SIZE;
+        crc.reset();
+        crc.update(buffer.array(), payloadStart, buffer.position() - payloadStart);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    private void ensureCapacity(int additional) {
+        if (buffer.remaining() < additional) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + additional));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private long write(int records) throws IOException {
+        checkNotFailed();
+        buffer.flip();
+        int length = buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            discardTornAppend(e);
+            throw e;
+        } finally {
+            if (buffer.capacity() > INITIAL_BUFFER_SIZE * 16) {
+                buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+            }
+        }
+        segmentSize += length;
+        recordsInSegment += records;
+        return ++appendedSequence;
+    }
+
+    private void discardTornAppend(IOException appendFailure) {
+        try {
+            channel.truncate(segmentSize);
+        } catch (IOException e) {
+            appendFailure.addSuppressed(e);
+            fail(appendFailure);
+        }
+    }
+
+    private synchronized void fail(IOException e) {
+        if (failure == null) {
+            log.error("Write-ahead log segment {} failed, rejecting appends until a restart",
+                    segmentPath(directory, generation), e);
+            failure = e;
+        }
+    }
+
+    private void checkNotFailed() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Write-ahead log failed earlier", e);
+        }
+    }
+
+    private static FileChannel openSegment(Path directory, long generation) throws IOException {
+        return FileChannel.open(segmentPath(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static Path segmentPath(Path directory, long generation) {
+        return directory.resolve(String.format("wal-%019d.log", generation));
+    }
+
+    private static List<Long> listGenerations(Path directory) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    public record Entry(byte operation, long id, User user) {
+    }
+}
@@ -0,0 +1,56 @@
+package clear.solution.test.repository;
+
+import clear.solution.test.entity.User;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public interface UserRepository {
+    Long nextId();
+
+    /**
+     * Reserves {@code count} consecutive ids and returns the first one.
+     */
+    Long allocateIds(int count);
+
+    User save(User user);
+
+    void saveAll(Collection<User> users);
+
+    Optional<User> findById(Long id);
+
+    Optional<User> update(Long id, UnaryOperator<User> updater);
+
+    Optional<User> deleteById(Long id);
+
+    Stream<User> findAll();
+
+    /**
+     * Returns every user as of this call: writes made while the stream is read do not show in it. The caller
+     * must keep writes out for the duration of the call. By default the users are collected into a list,
+     * which for a store that never changes a stored user in place copies one reference per user.
+     */
+    default Stream<User> findAllAsOfNow() {
+        return findAll().toList().stream();
+    }
+
+    long count();
+
+    /**
+     * Tells whether the store still accepts writes. A durable store stops once its log failed in a way only
+     * a restart recovers from.
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
+    /**
+     * Runs a series of mutations that only have to be durable once the whole series returns, so a store
+     * that syncs to disk can sync once for all of them.
+     */
+    default void inBatch(Runnable mutations) {
+        mutations.run();
+    }
+}
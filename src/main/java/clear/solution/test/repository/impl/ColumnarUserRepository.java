@@ -0,0 +1,218 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine that keeps users in columns instead of objects: ids and birth dates (as epoch days)
+ * in primitive arrays indexed by slot, and the string fields as UTF-8 in an {@link OffHeapStringArena}.
+ * {@link User} instances are only created when a user is read, so the heap holds a few primitive
+ * arrays regardless of the number of users. Enabled with {@code user.storage.engine=columnar}.
+ */
+@Repository
+@ConditionalOnProperty(name = "user.storage.engine", havingValue = "columnar")
+public class ColumnarUserRepository implements UserRepository {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int STRING_FIELDS = 5;
+    private static final long FREE_SLOT = 0L;
+    private static final int NULL_EPOCH_DAY = Integer.MIN_VALUE;
+
+    private final AtomicLong idSequence = new AtomicLong(1L);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap slotsById = new LongIntHashMap(INITIAL_CAPACITY);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] birthEpochDays = new int[INITIAL_CAPACITY];
+    private long[] stringReferences = new long[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotCount;
+    private int usedSlots;
+    private OffHeapStringArena strings = new OffHeapStringArena();
+
+    @Override
+    public Long nextId() {
+        return idSequence.getAndIncrement();
+    }
+
+    @Override
+    public Long allocateIds(int count) {
+        return idSequence.getAndAdd(count);
+    }
+
+    @Override
+    public User save(User user) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            write(user);
+        } finally {
+            writeLock.unlock();
+        }
+        return user;
+    }
+
+    @Override
+    public void saveAll(Collection<User> users) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            users.forEach(this::write);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int slot = slotsById.get(id);
+            return slot == LongIntHashMap.MISSING ? Optional.empty() : Optional.of(materialize(slot));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> update(Long id, UnaryOperator<User> updater) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = slotsById.get(id);
+            if (slot == LongIntHashMap.MISSING) {
+                return Optional.empty();
+            }
+            User updatedUser = updater.apply(materialize(slot));
+            write(updatedUser);
+            return Optional.of(updatedUser);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = slotsById.remove(id);
+            if (slot == LongIntHashMap.MISSING) {
+                return Optional.empty();
+            }
+            User deletedUser = materialize(slot);
+            strings.release(stringReferences[slot]);
+            ids[slot] = FREE_SLOT;
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+            compactStringsIfNeeded();
+            return Optional.of(deletedUser);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Walks the slots one at a time, taking the read lock per user, so a long-running consumer never
+     * blocks writers. The result is weakly consistent like iteration over a concurrent map.
+     */
+    @Override
+    public Stream<User> findAll() {
+        int slots;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            slots = usedSlots;
+        } finally {
+            readLock.unlock();
+        }
+        return IntStream.range(0, slots)
+                .mapToObj(this::findBySlot)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public long count() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return slotsById.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private User findBySlot(int slot) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return ids[slot] == FREE_SLOT ? null : materialize(slot);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(User user) {
+        int slot = slotsById.get(user.getId());
+        if (slot == LongIntHashMap.MISSING) {
+            slot = allocateSlot();
+            slotsById.put(user.getId(), slot);
+        } else {
+            strings.release(stringReferences[slot]);
+        }
+        ids[slot] = user.getId();
+        birthEpochDays[slot] = user.getBirthDate() == null ? NULL_EPOCH_DAY : (int) user.getBirthDate().toEpochDay();
+        stringReferences[slot] = strings.write(user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getAddress(), user.getPhoneNumber());
+        compactStringsIfNeeded();
+    }
+
+    private User materialize(int slot) {
+        String[] values = strings.read(stringReferences[slot], STRING_FIELDS);
+        int epochDay = birthEpochDays[slot];
+        return new User(ids[slot], values[0], values[1], values[2],
+                epochDay == NULL_EPOCH_DAY ? null : LocalDate.ofEpochDay(epochDay), values[3], values[4]);
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (usedSlots == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            birthEpochDays = Arrays.copyOf(birthEpochDays, capacity);
+            stringReferences = Arrays.copyOf(stringReferences, capacity);
+        }
+        return usedSlots++;
+    }
+
+    private void compactStringsIfNeeded() {
+        if (!strings.shouldCompact()) {
+            return;
+        }
+        OffHeapStringArena compacted = new OffHeapStringArena();
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (ids[slot] != FREE_SLOT) {
+                stringReferences[slot] = compacted.copyFrom(strings, stringReferences[slot]);
+            }
+        }
+        strings = compacted;
+    }
+}
@@ -0,0 +1,250 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.persistence.UserSnapshot;
+import clear.solution.test.persistence.UserWriteAheadLog;
+import clear.solution.test.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Makes the in-memory store durable. Every mutation is appended to the write-ahead log and then applied
+ * in memory under one lock, so the log order matches the order in which mutations were applied and a
+ * mutation that could not be logged is never visible; the caller then waits for the group-committed fsync
+ * outside of the lock. Reads go straight to memory.
+ * <p>
+ * Log records hold full user images, so replaying a record that a snapshot already contains is
+ * harmless. That lets snapshots be taken while writers keep running.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnExpression("${user.persistence.enabled:false} and '${user.storage.engine:memory}' == 'memory'")
+public class DurableUserRepository implements UserRepository {
+    private final InMemoryUserRepository delegate;
+    private final Path directory;
+    private final long snapshotIntervalMillis;
+    private final Object writeLock = new Object();
+    // Highest sequence appended by the current thread's batch, or null outside a batch.
+    private final ThreadLocal<long[]> batchSequence = new ThreadLocal<>();
+    private UserWriteAheadLog writeAheadLog;
+    private ScheduledExecutorService snapshotScheduler;
+
+    public DurableUserRepository(InMemoryUserRepository delegate,
+                                 @Value("${user.persistence.directory}") String directory,
+                                 @Value("${user.persistence.snapshot-interval-ms}") long snapshotIntervalMillis) {
+        this.delegate = delegate;
+        this.directory = Path.of(directory);
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        Optional<UserSnapshot.Header> snapshot = UserSnapshot.read(directory, this::restore);
+        long firstGeneration = snapshot.map(UserSnapshot.Header::walGeneration).orElse(0L);
+        snapshot.ifPresent(header -> delegate.advanceIdsBeyond(header.nextId() - 1));
+        long lastGeneration = UserWriteAheadLog.replay(directory, firstGeneration, entry -> {
+            if (entry.operation() == UserWriteAheadLog.DELETE) {
+                delegate.deleteById(entry.id());
+            } else {
+                restore(entry.user());
+            }
+        });
+        writeAheadLog = UserWriteAheadLog.open(directory, Math.max(firstGeneration, lastGeneration + 1));
+        log.info("Recovered {} users from {} in {} ms", delegate.count(), directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+                snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshotScheduler.shutdown();
+        synchronized (writeLock) {
+            writeAheadLog.close();
+        }
+    }
+
+    /**
+     * Rotates the log and writes a compacted snapshot of the store, then drops the covered segments.
+     */
+    public void snapshot() throws IOException {
+        UserSnapshot.Header header;
+        synchronized (writeLock) {
+            if (writeAheadLog.getRecordsInSegment() == 0) {
+                return;
+            }
+            header = new UserSnapshot.Header(writeAheadLog.rotate(), delegate.peekNextId());
+        }
+        try (Stream<User> users = delegate.findAll()) {
+            UserSnapshot.write(directory, header, users.iterator());
+        }
+        writeAheadLog.deleteSegmentsBefore(header.walGeneration());
+    }
+
+    @Override
+    public Long nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public Long allocateIds(int count) {
+        return delegate.allocateIds(count);
+    }
+
+    @Override
+    public User save(User user) {
+        long sequence;
+        synchronized (writeLock) {
+            sequence = log(() -> writeAheadLog.append(UserWriteAheadLog.CREATE, user));
+            delegate.save(user);
+        }
+        awaitDurable(sequence);
+        return user;
+    }
+
+    @Override
+    public void saveAll(Collection<User> users) {
+        long sequence;
+        synchronized (writeLock) {
+            sequence = log(() -> writeAheadLog.appendAll(UserWriteAheadLog.CREATE, users));
+            delegate.saveAll(users);
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Appends the mutations as they run but waits for the log to be synced only once, at the end.
+     */
+    @Override
+    public void inBatch(Runnable mutations) {
+        long[] sequence = new long[1];
+        batchSequence.set(sequence);
+        try {
+            mutations.run();
+        } finally {
+            batchSequence.remove();
+        }
+        awaitDurable(sequence[0]);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    /**
+     * Logs the updated user before the delegate stores it, so an update that fails to be logged leaves the
+     * stored user unchanged.
+     */
+    @Override
+    public Optional<User> update(Long id, UnaryOperator<User> updater) {
+        Optional<User> updatedUser;
+        long[] sequence = new long[1];
+        synchronized (writeLock) {
+            updatedUser = delegate.update(id, user -> {
+                User updated = updater.apply(user);
+                sequence[0] = log(() -> writeAheadLog.append(UserWriteAheadLog.UPDATE, updated));
+                return updated;
+            });
+        }
+        awaitDurable(sequence[0]);
+        return updatedUser;
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        Optional<User> deletedUser;
+        long sequence;
+        synchronized (writeLock) {
+            if (delegate.findById(id).isEmpty()) {
+                return Optional.empty();
+            }
+            sequence = log(() -> writeAheadLog.appendDelete(id));
+            deletedUser = delegate.deleteById(id);
+        }
+        awaitDurable(sequence);
+        return deletedUser;
+    }
+
+    @Override
+    public Stream<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return !writeAheadLog.isFailed();
+    }
+
+    private void restore(User user) {
+        delegate.save(user);
+        delegate.advanceIdsBeyond(user.getId());
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write user snapshot to {}", directory, e);
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        if (sequence == 0) {
+            return;
+        }
+        long[] batch = batchSequence.get();
+        if (batch != null) {
+            batch[0] = Math.max(batch[0], sequence);
+            return;
+        }
+        try {
+            writeAheadLog.awaitDurable(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long log(LogAppend append) {
+        try {
+            return append.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LogAppend {
+        long run() throws IOException;
+    }
+}
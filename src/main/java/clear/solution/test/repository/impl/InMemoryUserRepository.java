@@ -0,0 +1,86 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+@Repository
+@ConditionalOnProperty(name = "user.storage.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryUserRepository implements UserRepository {
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong(1L);
+
+    @Override
+    public Long nextId() {
+        return idSequence.getAndIncrement();
+    }
+
+    @Override
+    public Long allocateIds(int count) {
+        return idSequence.getAndAdd(count);
+    }
+
+    public long peekNextId() {
+        return idSequence.get();
+    }
+
+    /**
+     * Moves the id sequence forward so that it never hands out ids at or below the given one. Used
+     * when users are restored from persistent storage.
+     */
+    public void advanceIdsBeyond(long id) {
+        idSequence.accumulateAndGet(id + 1, Math::max);
+    }
+
+    @Override
+    public User save(User user) {
+        users.put(user.getId(), user);
+        return user;
+    }
+
+    @Override
+    public void saveAll(Collection<User> batch) {
+        Map<Long, User> usersById = new HashMap<>(batch.size() * 2);
+        batch.forEach(user -> usersById.put(user.getId(), user));
+        users.putAll(usersById);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    /**
+     * Applies the updater while holding the map bin of the given id, so concurrent updates of
+     * the same user are serialized and none of them is lost.
+     */
+    @Override
+    public Optional<User> update(Long id, UnaryOperator<User> updater) {
+        return Optional.ofNullable(users.computeIfPresent(id, (key, user) -> updater.apply(user)));
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        return Optional.ofNullable(users.remove(id));
+    }
+
+    @Override
+    public Stream<User> findAll() {
+        return users.values().stream();
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+}
@@ -0,0 +1,461 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.persistence.JdbcUserTable;
+import clear.solution.test.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine backed by a relational database through JDBC, e.g. H2 in file mode. Enabled with
+ * {@code user.storage.engine=jdbc}.
+ * <p>
+ * Requests do not wait for SQL. Reads are served from a bounded LRU cache of users, and only a miss goes
+ * to the database. Writes are recorded as pending per user and coalesced: a second update of the same user
+ * replaces the first one, and a user created and deleted before a flush is never written at all. Pending
+ * writes are flushed as JDBC batches, in one transaction, every {@code user.jdbc.flush-interval-ms} or as
+ * soon as {@code user.jdbc.flush-batch-size} users are pending. Writers that find
+ * {@code user.jdbc.max-pending} users pending flush before their own write, so a slow or unavailable
+ * database slows writes down and eventually rejects them instead of filling the heap.
+ * <p>
+ * With {@code user.jdbc.write-behind=false} every write, or every {@link #inBatch batch} of writes, is
+ * flushed before it returns.
+ * <p>
+ * When a batch fails, its writes are tried again one per transaction. A write the database rejects on its
+ * own, e.g. for a constraint it violates, is dropped, logged and counted in {@link #droppedWrites()}, so a
+ * single bad row cannot keep every later flush failing. Any other failure leaves the writes not yet stored
+ * for the next flush.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "user.storage.engine", havingValue = "jdbc")
+public class JdbcUserRepository implements UserRepository {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int readConnections;
+    private final int maxCachedUsers;
+    private final long flushIntervalMillis;
+    private final int flushBatchSize;
+    private final int maxPending;
+    private final boolean writeBehind;
+    private final AtomicLong idSequence = new AtomicLong(1L);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ThreadLocal<Boolean> batching = new ThreadLocal<>();
+    private final LinkedHashMap<Long, User> cache;
+    // Bumped on every write, so that a user loaded from the database while it changed is not cached.
+    private long cacheVersion;
+    // Writes not yet handed to a flush; replaced with an empty map when a flush starts.
+    private volatile Map<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    // Writes of the running flush, or of the last one if it failed; empty once they are committed.
+    private volatile Map<Long, PendingWrite> flushing = Map.of();
+    // Guarded by flushLock.
+    private long committedNextId;
+    private JdbcUserTable table;
+    private ScheduledExecutorService flushScheduler;
+
+    public JdbcUserRepository(@Value("${user.jdbc.url:jdbc:h2:file:./data/users}") String url,
+                              @Value("${user.jdbc.username:sa}") String username,
+                              @Value("${user.jdbc.password:}") String password,
+                              @Value("${user.jdbc.read-connections:4}") int readConnections,
+                              @Value("${user.jdbc.cache.max-entries:100000}") int maxCachedUsers,
+                              @Value("${user.jdbc.flush-interval-ms:200}") long flushIntervalMillis,
+                              @Value("${user.jdbc.flush-batch-size:1000}") int flushBatchSize,
+                              @Value("${user.jdbc.max-pending:10000}") int maxPending,
+                              @Value("${user.jdbc.write-behind:true}") boolean writeBehind) {
+        if (maxCachedUsers < 0 || flushIntervalMillis < 1 || flushBatchSize < 1 || maxPending < flushBatchSize) {
+            throw new IllegalArgumentException("Invalid user.jdbc settings: the cache size must not be negative, "
+                    + "the flush interval and batch size must be positive and max-pending at least the batch size");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.readConnections = readConnections;
+        this.maxCachedUsers = maxCachedUsers;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushBatchSize = flushBatchSize;
+        this.maxPending = maxPending;
+        this.writeBehind = writeBehind;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, User> eldest) {
+                return size() > JdbcUserRepository.this.maxCachedUsers;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void open() throws SQLException {
+        table = JdbcUserTable.open(url, username, password, readConnections);
+        committedNextId = table.nextId();
+        idSequence.set(committedNextId);
+        count.set(table.count());
+        log.info("Opened {} with {} users", url, count.get());
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-jdbc-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws SQLException {
+        flushScheduler.shutdown();
+        try {
+            flush();
+        } finally {
+            table.close();
+        }
+    }
+
+    /**
+     * Writes every pending change to the database and returns once it is committed.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Long, PendingWrite> batch;
+            long nextId;
+            synchronized (writeLock) {
+                nextId = idSequence.get();
+                if (pending.isEmpty() && flushing.isEmpty() && nextId == committedNextId) {
+                    return;
+                }
+                if (flushing.isEmpty()) {
+                    batch = pending;
+                } else {
+                    // Retry what the last flush failed to write, followed by what changed since.
+                    Map<Long, PendingWrite> retry = new ConcurrentHashMap<>(flushing);
+                    pending.forEach((id, write) -> coalesce(retry, id, write));
+                    batch = retry;
+                }
+                // Published before the pending writes are dropped, so readers always find one of them.
+                flushing = batch;
+                pending = new ConcurrentHashMap<>();
+            }
+            try {
+                write(batch.values(), nextId);
+            } catch (SQLException e) {
+                log.warn("Failed to write {} users to {}, writing them one at a time", batch.size(), url, e);
+                writeEach(batch, nextId);
+            }
+            committedNextId = nextId;
+            flushing = Map.of();
+        }
+    }
+
+    public int pendingWrites() {
+        return pending.size() + flushing.size();
+    }
+
+    /**
+     * Returns how many writes were dropped because the database rejected them.
+     */
+    public long droppedWrites() {
+        return droppedWrites.get();
+    }
+
+    @Override
+    public Long nextId() {
+        return idSequence.getAndIncrement();
+    }
+
+    @Override
+    public Long allocateIds(int count) {
+        return idSequence.getAndAdd(count);
+    }
+
+    @Override
+    public User save(User user) {
+        makeRoom(1);
+        synchronized (writeLock) {
+            record(user.getId(), new PendingWrite(Operation.INSERT, user));
+            count.incrementAndGet();
+        }
+        afterWrite();
+        return user;
+    }
+
+    @Override
+    public void saveAll(Collection<User> users) {
+        makeRoom(users.size());
+        synchronized (writeLock) {
+            users.forEach(user -> record(user.getId(), new PendingWrite(Operation.INSERT, user)));
+            count.addAndGet(users.size());
+        }
+        afterWrite();
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        long loadVersion;
+        synchronized (cache) {
+            User cached = cache.get(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            loadVersion = cacheVersion;
+        }
+        PendingWrite write = pending.get(id);
+        if (write == null) {
+            write = flushing.get(id);
+        }
+        if (write != null) {
+            return write.operation() == Operation.DELETE ? Optional.empty() : Optional.of(write.user());
+        }
+        Optional<User> loaded;
+        try {
+            loaded = table.find(id);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read user " + id, e);
+        }
+        loaded.ifPresent(user -> {
+            synchronized (cache) {
+                if (maxCachedUsers > 0 && cacheVersion == loadVersion) {
+                    cache.put(id, user);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    public Optional<User> update(Long id, UnaryOperator<User> updater) {
+        makeRoom(1);
+        Optional<User> updatedUser;
+        synchronized (writeLock) {
+            updatedUser = findById(id).map(updater);
+            updatedUser.ifPresent(user -> record(id, new PendingWrite(Operation.UPDATE, user)));
+        }
+        afterWrite();
+        return updatedUser;
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        makeRoom(1);
+        Optional<User> deletedUser;
+        synchronized (writeLock) {
+            deletedUser = findById(id);
+            deletedUser.ifPresent(user -> {
+                record(id, new PendingWrite(Operation.DELETE, user));
+                count.decrementAndGet();
+            });
+        }
+        afterWrite();
+        return deletedUser;
+    }
+
+    /**
+     * Streams the users as committed to the database, after flushing what is pending.
+     */
+    @Override
+    public Stream<User> findAll() {
+        flush();
+        try {
+            return table.findAll();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read users", e);
+        }
+    }
+
+    /**
+     * Flushes what is pending and streams the table with one query, which the database answers from a
+     * single consistent view, so nothing has to be copied here.
+     */
+    @Override
+    public Stream<User> findAllAsOfNow() {
+        return findAll();
+    }
+
+    @Override
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Without write-behind, flushes once after all the mutations instead of after each of them.
+     */
+    @Override
+    public void inBatch(Runnable mutations) {
+        if (writeBehind) {
+            mutations.run();
+            return;
+        }
+        batching.set(Boolean.TRUE);
+        try {
+            mutations.run();
+        } finally {
+            batching.remove();
+        }
+        flush();
+    }
+
+    private void record(long id, PendingWrite write) {
+        coalesce(pending, id, write);
+        synchronized (cache) {
+            cacheVersion++;
+            if (write.operation() == Operation.DELETE) {
+                cache.remove(id);
+            } else if (maxCachedUsers > 0) {
+                cache.put(id, write.user());
+            }
+        }
+    }
+
+    /**
+     * Folds a later write of a user into the one already recorded for it, if any.
+     */
+    private static void coalesce(Map<Long, PendingWrite> writes, long id, PendingWrite later) {
+        writes.compute(id, (key, earlier) -> {
+            if (earlier == null || earlier.operation() != Operation.INSERT) {
+                return later;
+            }
+            // The row does not exist yet: insert the latest image, or nothing if the user is gone.
+            return later.operation() == Operation.DELETE ? null : new PendingWrite(Operation.INSERT, later.user());
+        });
+    }
+
+    private void makeRoom(int writes) {
+        if (pendingWrites() + writes > maxPending) {
+            flush();
+        }
+    }
+
+    private void afterWrite() {
+        if (!writeBehind) {
+            if (batching.get() == null) {
+                flush();
+            }
+        } else if (pending.size() >= flushBatchSize && flushRequested.compareAndSet(false, true)) {
+            flushScheduler.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} pending users to {}, retrying", pendingWrites(), url, e);
+        }
+    }
+
+    /**
+     * Writes the batch one user per transaction, removing each write from it once it is stored or dropped,
+     * so that only what is left is retried when the database fails for another reason.
+     */
+    private void writeEach(Map<Long, PendingWrite> batch, long nextId) {
+        for (Map.Entry<Long, PendingWrite> entry : batch.entrySet()) {
+            try {
+                write(List.of(entry.getValue()), nextId);
+            } catch (SQLException e) {
+                if (!isRejected(e)) {
+                    throw new IllegalStateException("Failed to write " + batch.size() + " users", e);
+                }
+                drop(entry.getKey(), entry.getValue(), e);
+            }
+            batch.remove(entry.getKey());
+        }
+    }
+
+    /**
+     * Tells whether the database rejected the data itself: SQLState class 22 (data exception) or 23
+     * (integrity constraint violation). Drivers report batch failures as a {@link java.sql.BatchUpdateException}
+     * with the actual error chained, so the causes and the next exceptions are looked at as well.
+     */
+    private static boolean isRejected(SQLException e) {
+        for (Throwable failure = e; failure != null; failure = failure.getCause()) {
+            if (failure instanceof SQLException sqlFailure) {
+                for (SQLException next = sqlFailure; next != null; next = next.getNextException()) {
+                    String state = next.getSQLState();
+                    if (next instanceof SQLDataException || next instanceof SQLIntegrityConstraintViolationException
+                            || state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets a write the database rejected. Readers then see the row as stored, so the count and the
+     * cache follow it, and a later pending write of the same user is adjusted to a row that is missing.
+     */
+    private void drop(long id, PendingWrite write, SQLException e) {
+        log.error("Dropping the {} of user {} rejected by {}", write.operation(), id, url, e);
+        droppedWrites.incrementAndGet();
+        synchronized (writeLock) {
+            PendingWrite later = pending.get(id);
+            if (later == null) {
+                if (write.operation() == Operation.INSERT) {
+                    count.decrementAndGet();
+                } else if (write.operation() == Operation.DELETE) {
+                    count.incrementAndGet();
+                }
+            } else if (write.operation() == Operation.INSERT) {
+                // The row was never inserted: a later update has to insert it, and a later delete is moot.
+                if (later.operation() == Operation.DELETE) {
+                    pending.remove(id);
+                } else {
+                    pending.put(id, new PendingWrite(Operation.INSERT, later.user()));
+                }
+            }
+            synchronized (cache) {
+                cacheVersion++;
+                cache.remove(id);
+            }
+        }
+    }
+
+    private void write(Collection<PendingWrite> batch, long nextId) throws SQLException {
+        List<User> inserts = new ArrayList<>();
+        List<User> updates = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            switch (write.operation()) {
+                case INSERT -> inserts.add(write.user());
+                case UPDATE -> updates.add(write.user());
+                case DELETE -> deletes.add(write.user().getId());
+            }
+        }
+        table.write(inserts, updates, deletes, nextId);
+    }
+
+    private enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private record PendingWrite(Operation operation, User user) {
+    }
+}
@@ -0,0 +1,117 @@
+package clear.solution.test.repository.impl;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from positive {@code long} keys to {@code int} values, without boxing. Uses
+ * linear probing with backward-shift deletion, so there are no tombstones. Not thread-safe.
+ */
+final class LongIntHashMap {
+    static final int MISSING = -1;
+    private static final long EMPTY_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeThreshold;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int index = indexOf(key, mask); ; index = (index + 1) & mask) {
+            long existing = keys[index];
+            if (existing == key) {
+                return values[index];
+            }
+            if (existing == EMPTY_KEY) {
+                return MISSING;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        if (key <= EMPTY_KEY) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        int mask = keys.length - 1;
+        int index = indexOf(key, mask);
+        while (keys[index] != EMPTY_KEY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == EMPTY_KEY) {
+            keys[index] = key;
+            if (++size > resizeThreshold) {
+                values[index] = value;
+                rehash(keys.length * 2);
+                return;
+            }
+        }
+        values[index] = value;
+    }
+
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int index = indexOf(key, mask);
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY_KEY) {
+                return MISSING;
+            }
+            index = (index + 1) & mask;
+        }
+        int removed = values[index];
+        size--;
+        int gap = index;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = indexOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY_KEY;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int index = indexOf(oldKeys[i], mask);
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int indexOf(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        return Math.max(16, capacity);
+    }
+}
@@ -0,0 +1,124 @@
+package clear.solution.test.repository.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only store of UTF-8 string tuples in direct (off-heap) chunks. A tuple is addressed by a
+ * {@code long} reference holding the chunk index in the high and the offset in the low 32 bits.
+ * Released tuples are only counted as garbage; the owner reclaims space by copying live tuples into a
+ * fresh arena. Not thread-safe.
+ */
+final class OffHeapStringArena {
+    private static final int CHUNK_SIZE = 16 << 20;
+    private static final int NULL_LENGTH = 0;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long liveBytes;
+    private long garbageBytes;
+
+    long write(String... values) {
+        byte[][] encoded = new byte[values.length][];
+        int length = Integer.BYTES;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+                length += varIntSize(encoded[i].length + 1) + encoded[i].length;
+            } else {
+                length += varIntSize(NULL_LENGTH);
+            }
+        }
+        ByteBuffer chunk = reserve(length);
+        long reference = ((long) (chunks.size() - 1) << 32) | chunk.position();
+        chunk.putInt(length);
+        for (byte[] bytes : encoded) {
+            if (bytes == null) {
+                putVarInt(chunk, NULL_LENGTH);
+            } else {
+                putVarInt(chunk, bytes.length + 1);
+                chunk.put(bytes);
+            }
+        }
+        liveBytes += length;
+        return reference;
+    }
+
+    String[] read(long reference, int fields) {
+        ByteBuffer chunk = chunks.get((int) (reference >>> 32));
+        int offset = (int) reference + Integer.BYTES;
+        String[] values = new String[fields];
+        for (int i = 0; i < fields; i++) {
+            int length = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = chunk.get(offset++);
+                length |= (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            if (length != NULL_LENGTH) {
+                byte[] bytes = new byte[length - 1];
+                chunk.get(offset, bytes);
+                offset += bytes.length;
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+
+    void release(long reference) {
+        int length = lengthOf(reference);
+        liveBytes -= length;
+        garbageBytes += length;
+    }
+
+    long copyFrom(OffHeapStringArena source, long reference) {
+        int length = source.lengthOf(reference);
+        ByteBuffer chunk = reserve(length);
+        long copied = ((long) (chunks.size() - 1) << 32) | chunk.position();
+        ByteBuffer sourceChunk = source.chunks.get((int) (reference >>> 32));
+        chunk.put(chunk.position(), sourceChunk, (int) reference, length);
+        chunk.position(chunk.position() + length);
+        liveBytes += length;
+        return copied;
+    }
+
+    boolean shouldCompact() {
+        return garbageBytes > CHUNK_SIZE && garbageBytes > liveBytes;
+    }
+
+    long getAllocatedBytes() {
+        return chunks.stream().mapToLong(ByteBuffer::capacity).sum();
+    }
+
+    private int lengthOf(long reference) {
+        return chunks.get((int) (reference >>> 32)).getInt((int) reference);
+    }
+
+    private ByteBuffer reserve(int length) {
+        if (current == null || current.remaining() < length) {
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, length));
+            chunks.add(current);
+        }
+        return current;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
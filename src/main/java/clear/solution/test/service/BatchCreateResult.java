@@ -0,0 +1,24 @@
+package clear.solution.test.service;
+
+import clear.solution.test.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchCreateResult {
+    private User user;
+    private String error;
+
+    public static BatchCreateResult created(User user) {
+        return new BatchCreateResult(user, null);
+    }
+
+    public static BatchCreateResult failed(String error) {
+        return new BatchCreateResult(null, error);
+    }
+
+    public boolean isCreated() {
+        return user != null;
+    }
+}
@@ -0,0 +1,105 @@
+package clear.solution.test.service;
+
+import clear.solution.test.entity.User;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The fields of a JSON merge patch (RFC 7396) against a {@link User}. A field that is present with a
+ * {@code null} value clears it. Field names are resolved once, while the patch is built, to a {@link Field}
+ * that carries its setter, so applying a patch does no string switching or casting.
+ */
+public final class UserPatch {
+    private static final Field[] FIELDS = Field.values();
+    private final String[] values = new String[FIELDS.length];
+    private int presentFields;
+
+    public static UserPatch fromMap(Map<String, Object> fields) {
+        UserPatch patch = new UserPatch();
+        fields.forEach((name, value) -> {
+            Field field = Field.byName(name);
+            if (value != null && !(value instanceof String)) {
+                throw new IllegalArgumentException("Field " + name + " must be a string.");
+            }
+            patch.set(field, (String) value);
+        });
+        return patch;
+    }
+
+    public UserPatch set(Field field, String value) {
+        if (value == null && field.required) {
+            throw new IllegalArgumentException("Field " + field.jsonName + " is required.");
+        }
+        if (value != null && value.length() > field.maxLength) {
+            throw new IllegalArgumentException("Field " + field.jsonName + " must be at most " + field.maxLength
+                    + " characters.");
+        }
+        values[field.ordinal()] = value;
+        presentFields |= 1 << field.ordinal();
+        return this;
+    }
+
+    public boolean contains(Field field) {
+        return (presentFields & 1 << field.ordinal()) != 0;
+    }
+
+    public String get(Field field) {
+        return values[field.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        return presentFields == 0;
+    }
+
+    public void applyTo(User user) {
+        for (int remaining = presentFields; remaining != 0; remaining &= remaining - 1) {
+            Field field = FIELDS[Integer.numberOfTrailingZeros(remaining)];
+            field.setter.accept(user, values[field.ordinal()]);
+        }
+    }
+
+    public enum Field {
+        EMAIL("email", true, User.MAX_EMAIL_LENGTH, User::setEmail),
+        FIRST_NAME("firstName", true, User.MAX_NAME_LENGTH, User::setFirstName),
+        LAST_NAME("lastName", true, User.MAX_NAME_LENGTH, User::setLastName),
+        ADDRESS("address", false, User.MAX_ADDRESS_LENGTH, User::setAddress),
+        PHONE_NUMBER("phoneNumber", false, User.MAX_PHONE_NUMBER_LENGTH, User::setPhoneNumber);
+
+        private static final Map<String, Field> BY_JSON_NAME = new HashMap<>();
+
+        static {
+            for (Field field : values()) {
+                BY_JSON_NAME.put(field.jsonName, field);
+            }
+        }
+
+        private final String jsonName;
+        private final boolean required;
+        private final int maxLength;
+        private final BiConsumer<User, String> setter;
+
+        Field(String jsonName, boolean required, int maxLength, BiConsumer<User, String> setter) {
+            this.jsonName = jsonName;
+            this.required = required;
+            this.maxLength = maxLength;
+            this.setter = setter;
+        }
+
+        public static Field byName(String name) {
+            if ("birthDate".equals(name)) {
+                throw new IllegalArgumentException("User can't change DOB");
+            }
+            Field field = BY_JSON_NAME.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Field " + name + " not found on User.");
+            }
+            return field;
+        }
+
+        public String getJsonName() {
+            return jsonName;
+        }
+    }
+}
@@ -1,19 +1,35 @@
 package clear.solution.test.service;
 
 import clear.solution.test.entity.User;
+import clear.solution.test.index.BirthDateKey;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public interface UserService {
     User createUser(User requestUser);
 
+    List<BatchCreateResult> createUsers(List<User> requestUsers);
+
     User updateUserFields(Long id, Map<String, Object> fields);
 
+    User updateUserFields(Long id, UserPatch patch);
+
     User updateUser(Long id, User requestUser);
 
     void deletedUser(Long id);
 
+    User findUserByEmail(String email);
+
+    List<User> searchUsersByName(String query, int limit);
+
     List<User> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate);
+
+    List<User> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate, BirthDateKey after, int limit);
+
+    Stream<User> streamUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate);
+
+    long countUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate);
 }
@@ -0,0 +1,153 @@
+package clear.solution.test.service.impl;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.index.BirthDateKey;
+import clear.solution.test.metrics.RequestStage;
+import clear.solution.test.metrics.RequestTimings;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.UserPatch;
+import clear.solution.test.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Times every {@link UserService} operation and records the size of range query results. Timers and
+ * summaries are registered once up front and publish histogram buckets rather than client-side
+ * percentiles, so recording is a few atomic increments and percentiles are computed by Prometheus.
+ * Operations are also timed as the {@link RequestStage#SERVICE} stage of timed requests.
+ */
+@Primary
+@Service
+public class MeteredUserService implements UserService {
+    static final String OPERATION_TIMER = "users.service.operations";
+    static final String RANGE_RESULT_SIZE = "users.range.result.size";
+    private final UserServiceImpl delegate;
+    private final Timer createUserTimer;
+    private final Timer createUsersTimer;
+    private final Timer updateUserFieldsTimer;
+    private final Timer updateUserTimer;
+    private final Timer deletedUserTimer;
+    private final Timer findUserByEmailTimer;
+    private final Timer searchUsersByNameTimer;
+    private final Timer findUsersByBirthDateRangeTimer;
+    private final Timer findUsersByBirthDateRangePageTimer;
+    private final Timer streamUsersByBirthDateRangeTimer;
+    private final Timer countUsersByBirthDateRangeTimer;
+    private final DistributionSummary rangeResultSize;
+
+    public MeteredUserService(UserServiceImpl delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.createUserTimer = operationTimer("createUser", meterRegistry);
+        this.createUsersTimer = operationTimer("createUsers", meterRegistry);
+        this.updateUserFieldsTimer = operationTimer("updateUserFields", meterRegistry);
+        this.updateUserTimer = operationTimer("updateUser", meterRegistry);
+        this.deletedUserTimer = operationTimer("deletedUser", meterRegistry);
+        this.findUserByEmailTimer = operationTimer("findUserByEmail", meterRegistry);
+        this.searchUsersByNameTimer = operationTimer("searchUsersByName", meterRegistry);
+        this.findUsersByBirthDateRangeTimer = operationTimer("findUsersByBirthDateRange", meterRegistry);
+        this.findUsersByBirthDateRangePageTimer = operationTimer("findUsersByBirthDateRangePage", meterRegistry);
+        // The stream is lazy, so this only covers setting up the query, not reading the results.
+        this.streamUsersByBirthDateRangeTimer = operationTimer("streamUsersByBirthDateRange", meterRegistry);
+        this.countUsersByBirthDateRangeTimer = operationTimer("countUsersByBirthDateRange", meterRegistry);
+        this.rangeResultSize = DistributionSummary.builder(RANGE_RESULT_SIZE)
+                .description("Number of users returned by a birth-date range query")
+                .baseUnit("users")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(10_000_000.0)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public User createUser(User requestUser) {
+        return record(createUserTimer, () -> delegate.createUser(requestUser));
+    }
+
+    @Override
+    public List<BatchCreateResult> createUsers(List<User> requestUsers) {
+        return record(createUsersTimer, () -> delegate.createUsers(requestUsers));
+    }
+
+    @Override
+    public User updateUserFields(Long id, Map<String, Object> fields) {
+        return record(updateUserFieldsTimer, () -> delegate.updateUserFields(id, fields));
+    }
+
+    @Override
+    public User updateUserFields(Long id, UserPatch patch) {
+        return record(updateUserFieldsTimer, () -> delegate.updateUserFields(id, patch));
+    }
+
+    @Override
+    public User updateUser(Long id, User requestUser) {
+        return record(updateUserTimer, () -> delegate.updateUser(id, requestUser));
+    }
+
+    @Override
+    public void deletedUser(Long id) {
+        record(deletedUserTimer, () -> delegate.deletedUser(id));
+    }
+
+    @Override
+    public User findUserByEmail(String email) {
+        return record(findUserByEmailTimer, () -> delegate.findUserByEmail(email));
+    }
+
+    @Override
+    public List<User> searchUsersByName(String query, int limit) {
+        return record(searchUsersByNameTimer, () -> delegate.searchUsersByName(query, limit));
+    }
+
+    @Override
+    public List<User> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        List<User> users = record(findUsersByBirthDateRangeTimer,
+                () -> delegate.findUsersByBirthDateRange(fromDate, toDate));
+        rangeResultSize.record(users.size());
+        return users;
+    }
+
+    @Override
+    public List<User> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate, BirthDateKey after, int limit) {
+        List<User> users = record(findUsersByBirthDateRangePageTimer,
+                () -> delegate.findUsersByBirthDateRange(fromDate, toDate, after, limit));
+        rangeResultSize.record(users.size());
+        return users;
+    }
+
+    @Override
+    public Stream<User> streamUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        return record(streamUsersByBirthDateRangeTimer, () -> delegate.streamUsersByBirthDateRange(fromDate, toDate));
+    }
+
+    @Override
+    public long countUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        return record(countUsersByBirthDateRangeTimer, () -> delegate.countUsersByBirthDateRange(fromDate, toDate));
+    }
+
+    private static <T> T record(Timer timer, Supplier<T> operation) {
+        return timer.record(() -> RequestTimings.time(RequestStage.SERVICE, operation));
+    }
+
+    private static void record(Timer timer, Runnable operation) {
+        timer.record(() -> RequestTimings.time(RequestStage.SERVICE, operation));
+    }
+
+    private static Timer operationTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder(OPERATION_TIMER)
+                .description("Time spent in UserService operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+}
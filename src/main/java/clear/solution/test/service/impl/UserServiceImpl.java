@@ -1,11 +1,22 @@
 package clear.solution.test.service.impl;
 
 import clear.solution.test.entity.User;
+import clear.solution.test.event.UserChangedEvent;
+import clear.solution.test.exception.DuplicateEmailException;
 import clear.solution.test.exception.InvalidAgeException;
 import clear.solution.test.exception.UserNotFoundException;
+import clear.solution.test.index.BirthDateIndex;
+import clear.solution.test.index.BirthDateKey;
+import clear.solution.test.index.EmailIndex;
+import clear.solution.test.index.NameSearchIndex;
+import clear.solution.test.repository.UserRepository;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.UserPatch;
 import clear.solution.test.service.UserService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -13,71 +24,267 @@ import java.time.Period;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * User operations. Every mutation goes through the {@link UserWriter}, so only one thread at a time
+ * writes to the store and the indexes. Stored users are never changed in place: an update
+ * stores a changed copy, so readers take no lock and always see a user either wholly before or wholly
+ * after an update. The indexes may run one mutation ahead of or behind the users they point to.
+ */
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
-    private final List<User> users = new ArrayList<>();
+    private static final String UNDER_MINIMUM_AGE_MESSAGE = "User is under the minimum age.";
+    private final UserRepository userRepository;
+    private final BirthDateIndex birthDateIndex;
+    private final EmailIndex emailIndex;
+    private final NameSearchIndex nameSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserWriter userWriter;
     @Value("${user.minimum.age}")
     private int minimalAge;
-    private Long nextId = 1L;
+
+    @PostConstruct
+    public void rebuildIndexes() {
+        try (Stream<User> users = userRepository.findAll()) {
+            users.forEach(user -> {
+                birthDateIndex.add(user);
+                emailIndex.reserve(user.getEmail(), user.getId());
+                nameSearchIndex.add(user);
+            });
+        }
+    }
 
     @Override
     public User createUser(User requestUser) {
         if (!isUserHasMinimalAge(requestUser.getBirthDate())) {
-            throw new InvalidAgeException("User is under the minimum age.");
+            throw new InvalidAgeException(UNDER_MINIMUM_AGE_MESSAGE);
         }
-        requestUser.setId(nextId++);
-        users.add(requestUser);
-        return requestUser;
+        return userWriter.execute(() -> {
+            requestUser.setId(userRepository.nextId());
+            emailIndex.reserve(requestUser.getEmail(), requestUser.getId());
+            try {
+                userRepository.save(requestUser);
+            } catch (RuntimeException e) {
+                emailIndex.release(requestUser.getEmail(), requestUser.getId());
+                throw e;
+            }
+            birthDateIndex.add(requestUser);
+            nameSearchIndex.add(requestUser);
+            return requestUser;
+        }, user -> publishChange(UserChangedEvent.Type.CREATED, user));
     }
 
     @Override
-    public User updateUserFields(Long id, Map<String, Object> fields) {
-        User user = findUserById(id);
-
-        fields.forEach((field, value) -> {
-            switch (field) {
-                case "email" -> user.setEmail((String) value);
-                case "firstName" -> user.setFirstName((String) value);
-                case "lastName" -> user.setLastName((String) value);
-                case "birthDate" -> throw new IllegalArgumentException("User can't change DOB");
-                case "address" -> user.setAddress((String) value);
-                case "phoneNumber" -> user.setPhoneNumber((String) value);
-                default -> throw new IllegalArgumentException("Field " + field + " not found on User.");
+    public List<BatchCreateResult> createUsers(List<User> requestUsers) {
+        List<BatchCreateResult> results = new ArrayList<>(requestUsers.size());
+        int adults = 0;
+        for (User requestUser : requestUsers) {
+            if (isUserHasMinimalAge(requestUser.getBirthDate())) {
+                results.add(BatchCreateResult.created(requestUser));
+                adults++;
+            } else {
+                results.add(BatchCreateResult.failed(UNDER_MINIMUM_AGE_MESSAGE));
             }
-        });
-        return user;
+        }
+        if (adults == 0) {
+            return results;
+        }
+        int acceptedCount = adults;
+        return userWriter.execute(() -> saveAccepted(results, acceptedCount), this::publishCreated);
+    }
+
+    @Override
+    public User updateUserFields(Long id, Map<String, Object> fields) {
+        // Fields are checked inside the update, so an unknown user is reported before a bad field.
+        return patchUser(id, () -> UserPatch.fromMap(fields));
+    }
+
+    @Override
+    public User updateUserFields(Long id, UserPatch patch) {
+        return patchUser(id, () -> patch);
     }
 
     @Override
     public User updateUser(Long id, User requestUser) {
-        User updateUser = findUserById(id);
-        if (!updateUser.getBirthDate().equals(requestUser.getBirthDate())) {
-            throw new IllegalArgumentException("User can't change DOB");
-        }
-        updateUser.setEmail(requestUser.getEmail());
-        updateUser.setFirstName(requestUser.getFirstName());
-        updateUser.setLastName(requestUser.getLastName());
-        updateUser.setBirthDate(requestUser.getBirthDate());
-        updateUser.setAddress(requestUser.getAddress());
-        updateUser.setPhoneNumber(requestUser.getPhoneNumber());
-        return updateUser;
+        return userWriter.execute(() -> update(id, updateUser -> {
+            if (!updateUser.getBirthDate().equals(requestUser.getBirthDate())) {
+                throw new IllegalArgumentException("User can't change DOB");
+            }
+            updateUser.setEmail(requestUser.getEmail());
+            updateUser.setFirstName(requestUser.getFirstName());
+            updateUser.setLastName(requestUser.getLastName());
+            updateUser.setBirthDate(requestUser.getBirthDate());
+            updateUser.setAddress(requestUser.getAddress());
+            updateUser.setPhoneNumber(requestUser.getPhoneNumber());
+        }), user -> publishChange(UserChangedEvent.Type.UPDATED, user));
     }
 
     @Override
     public void deletedUser(Long id) {
-        users.remove(findUserById(id));
+        userWriter.execute(() -> {
+            User deletedUser = userRepository.deleteById(id).orElseThrow(() -> userNotFound(id));
+            birthDateIndex.remove(deletedUser);
+            emailIndex.release(deletedUser.getEmail(), deletedUser.getId());
+            nameSearchIndex.remove(deletedUser);
+            return deletedUser;
+        }, user -> publishChange(UserChangedEvent.Type.DELETED, user));
+    }
+
+    @Override
+    public User findUserByEmail(String email) {
+        // The index may already point at a user whose email change is not stored yet.
+        return emailIndex.findId(email)
+                .flatMap(userRepository::findById)
+                .filter(user -> emailIndex.isSameEmail(user.getEmail(), email))
+                .orElseThrow(() -> new UserNotFoundException("User not found for this email: " + email));
+    }
+
+    @Override
+    public List<User> searchUsersByName(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        return nameSearchIndex.search(query, limit)
+                .stream()
+                .map(userRepository::findById)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     @Override
     public List<User> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        validateBirthDateRange(fromDate, toDate);
+        return birthDateIndex.findBetween(fromDate, toDate, userRepository::findById);
+    }
+
+    @Override
+    public List<User> findUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate, BirthDateKey after, int limit) {
+        validateBirthDateRange(fromDate, toDate);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        return birthDateIndex.findIdsBetween(fromDate, toDate, after)
+                .map(userRepository::findById)
+                .flatMap(Optional::stream)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Stream<User> streamUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        validateBirthDateRange(fromDate, toDate);
+        return birthDateIndex.findIdsBetween(fromDate, toDate)
+                .map(userRepository::findById)
+                .flatMap(Optional::stream);
+    }
+
+    @Override
+    public long countUsersByBirthDateRange(LocalDate fromDate, LocalDate toDate) {
+        validateBirthDateRange(fromDate, toDate);
+        return birthDateIndex.countBetween(fromDate, toDate);
+    }
+
+    private User patchUser(Long id, Supplier<UserPatch> patchSupplier) {
+        // The patch is read inside the update, so an unknown user is reported before a bad field.
+        return userWriter.execute(() -> update(id, user -> patchSupplier.get().applyTo(user)),
+                user -> publishChange(UserChangedEvent.Type.UPDATED, user));
+    }
+
+    /**
+     * Stores a changed copy of the user and updates the indexes to match. A new email is reserved before the
+     * copy is stored, so a duplicate fails the update; everything else is reindexed only once the store
+     * accepted the copy, and the reservation is released if it did not, so a failed update leaves no trace.
+     */
+    private User update(Long id, Consumer<User> change) {
+        User[] storedUser = new User[1];
+        String[] reservedEmail = new String[1];
+        User updatedUser;
+        try {
+            updatedUser = userRepository.update(id, stored -> {
+                User user = copyOf(stored);
+                change.accept(user);
+                if (!emailIndex.isSameEmail(stored.getEmail(), user.getEmail())) {
+                    emailIndex.reserve(user.getEmail(), id);
+                    reservedEmail[0] = user.getEmail();
+                }
+                storedUser[0] = stored;
+                return user;
+            }).orElseThrow(() -> userNotFound(id));
+        } catch (RuntimeException e) {
+            if (reservedEmail[0] != null) {
+                emailIndex.release(reservedEmail[0], id);
+            }
+            throw e;
+        }
+        if (reservedEmail[0] != null) {
+            emailIndex.release(storedUser[0].getEmail(), id);
+        }
+        reindexNames(updatedUser, storedUser[0].getFirstName(), storedUser[0].getLastName());
+        return updatedUser;
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getBirthDate(),
+                user.getAddress(), user.getPhoneNumber());
+    }
+
+    private List<BatchCreateResult> saveAccepted(List<BatchCreateResult> results, int adults) {
+        long nextId = userRepository.allocateIds(adults);
+        List<User> acceptedUsers = new ArrayList<>(adults);
+        for (int i = 0; i < results.size(); i++) {
+            User acceptedUser = results.get(i).getUser();
+            if (acceptedUser == null) {
+                continue;
+            }
+            acceptedUser.setId(nextId++);
+            try {
+                emailIndex.reserve(acceptedUser.getEmail(), acceptedUser.getId());
+                acceptedUsers.add(acceptedUser);
+            } catch (DuplicateEmailException e) {
+                results.set(i, BatchCreateResult.failed(e.getMessage()));
+            }
+        }
+        try {
+            userRepository.saveAll(acceptedUsers);
+        } catch (RuntimeException e) {
+            acceptedUsers.forEach(user -> emailIndex.release(user.getEmail(), user.getId()));
+            throw e;
+        }
+        birthDateIndex.addAll(acceptedUsers);
+        nameSearchIndex.addAll(acceptedUsers);
+        return results;
+    }
+
+    private void publishCreated(List<BatchCreateResult> results) {
+        results.stream()
+                .filter(BatchCreateResult::isCreated)
+                .forEach(result -> publishChange(UserChangedEvent.Type.CREATED, result.getUser()));
+    }
+
+    private void publishChange(UserChangedEvent.Type type, User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(type, user.getId(), user.getBirthDate(), user));
+    }
+
+    private void reindexNames(User user, String previousFirstName, String previousLastName) {
+        if (!Objects.equals(previousFirstName, user.getFirstName()) || !Objects.equals(previousLastName, user.getLastName())) {
+            nameSearchIndex.remove(user.getId(), previousFirstName, previousLastName);
+            nameSearchIndex.add(user.getId(), user.getFirstName(), user.getLastName());
+        }
+    }
+
+    private void validateBirthDateRange(LocalDate fromDate, LocalDate toDate) {
         if (!fromDate.isBefore(toDate)) {
             throw new IllegalArgumentException("fromDate must be less than toDate");
         }
-        return users.stream()
-                .filter(user -> user.getBirthDate().isAfter(fromDate) && user.getBirthDate().isBefore(toDate))
-                .toList();
     }
 
     private boolean isUserHasMinimalAge(LocalDate birthDate) {
@@ -85,10 +292,7 @@ public class UserServiceImpl implements UserService {
         return period.getYears() >= minimalAge;
     }
 
-    private User findUserById(Long id) {
-        return users.stream()
-                .filter(user -> user.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new UserNotFoundException("User not found for this id: " + id));
+    private UserNotFoundException userNotFound(Long id) {
+        return new UserNotFoundException("User not found for this id: " + id);
     }
 }
@@ -0,0 +1,228 @@
+package clear.solution.test.service.impl;
+
+import clear.solution.test.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single writer of the user store and its indexes: user mutations are applied by one thread at a time,
+ * in batches, so the store and the indexes never need a lock to stay consistent with each other.
+ * <p>
+ * Callers put their mutation into a bounded ring and then try to take the writer role. The thread that
+ * gets it drains the ring in batches of up to {@code user.writer.max-batch-size}. Each batch is applied
+ * in ring order inside one {@link UserRepository#inBatch repository batch}, so a durable store syncs the
+ * whole batch to disk once; then the batch's commit callbacks run in the same order and their callers are
+ * woken. Like the group commit of the write-ahead log, the other callers just wait, and an uncontended
+ * caller applies its own mutation without handing it to another thread. When the ring is full, callers
+ * block until the writer catches up.
+ * <p>
+ * If a repository batch fails, e.g. because syncing it to disk failed, every caller of the batch gets the
+ * failure, even though readers may already see its mutations: they are not durable, so they are never
+ * acknowledged. The writer then rejects every write for as long as the store is not
+ * {@link UserRepository#isWritable writable}, which for the write-ahead log means until a restart has
+ * replayed what reached the disk.
+ */
+@Slf4j
+@Component
+public class UserWriter {
+    private final UserRepository userRepository;
+    private final BlockingQueue<Mutation<?>> ring;
+    private final int maxBatchSize;
+    private final ReentrantLock writerRole = new ReentrantLock();
+    // Only used by the thread holding the writer role.
+    private final List<Mutation<?>> batch;
+    // Failure of the last repository batch, until the store is writable again; guarded by the writer role.
+    private Throwable batchFailure;
+
+    public UserWriter(UserRepository userRepository,
+                      @Value("${user.writer.queue-capacity:1024}") int queueCapacity,
+                      @Value("${user.writer.max-batch-size:256}") int maxBatchSize) {
+        if (queueCapacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Writer queue capacity and batch size must be at least 1");
+        }
+        this.userRepository = userRepository;
+        this.ring = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.batch = new ArrayList<>(maxBatchSize);
+    }
+
+    /**
+     * Applies {@code mutation} as the single writer and returns its result once it is durable and
+     * {@code onCommitted} has run. Whatever the mutation or the callback throws is rethrown here.
+     */
+    public <T> T execute(Supplier<T> mutation, Consumer<? super T> onCommitted) {
+        if (writerRole.isHeldByCurrentThread()) {
+            // A commit callback that mutates again must not wait for itself.
+            IllegalStateException rejection = rejection();
+            if (rejection != null) {
+                throw rejection;
+            }
+            T result = mutation.get();
+            onCommitted.accept(result);
+            return result;
+        }
+        Mutation<T> queued = new Mutation<>(mutation, onCommitted);
+        if (ring.isEmpty() && writerRole.tryLock()) {
+            // Nothing is waiting, so applying it right away keeps the ring order.
+            try {
+                apply(List.of(queued));
+            } finally {
+                writerRole.unlock();
+            }
+            drain();
+            return queued.await();
+        }
+        try {
+            ring.put(queued);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a user mutation");
+        }
+        drain();
+        return queued.await();
+    }
+
+    /**
+     * Runs {@code action} while holding the writer role, so no mutation is applied while it runs. Meant for
+     * short actions, such as capturing a point-in-time view of the store; writers wait for it.
+     */
+    public <T> T holdingWrites(Supplier<T> action) {
+        writerRole.lock();
+        try {
+            return action.get();
+        } finally {
+            writerRole.unlock();
+            // Callers that queued meanwhile rely on the role holder to apply their mutations.
+            drain();
+        }
+    }
+
+    /**
+     * Returns how many mutations wait in the ring for a writer.
+     */
+    int queuedMutations() {
+        return ring.size();
+    }
+
+    /**
+     * Applies queued mutations until the ring is empty, unless another thread holds the writer role. A
+     * writer looks at the ring again after giving the role up, so a mutation queued by a caller that found
+     * the role taken is never left behind.
+     */
+    private void drain() {
+        while (!ring.isEmpty() && writerRole.tryLock()) {
+            try {
+                while (ring.drainTo(batch, maxBatchSize) > 0) {
+                    apply(batch);
+                    batch.clear();
+                }
+            } finally {
+                writerRole.unlock();
+            }
+        }
+    }
+
+    private void apply(List<Mutation<?>> batch) {
+        IllegalStateException rejection = rejection();
+        if (rejection != null) {
+            batch.forEach(mutation -> mutation.fail(rejection));
+            return;
+        }
+        try {
+            userRepository.inBatch(() -> batch.forEach(Mutation::apply));
+        } catch (RuntimeException | Error e) {
+            // Applied in memory but maybe not durable: report the failure to every caller of the batch.
+            log.error("Repository batch of {} user mutations failed", batch.size(), e);
+            batchFailure = e;
+            batch.forEach(mutation -> mutation.fail(e));
+            return;
+        }
+        batch.forEach(Mutation::commit);
+    }
+
+    /**
+     * Returns the exception to reject writes with while the store has not recovered from a failed batch.
+     */
+    private IllegalStateException rejection() {
+        if (batchFailure != null) {
+            if (!userRepository.isWritable()) {
+                return new IllegalStateException("User writes are rejected until the store recovers", batchFailure);
+            }
+            batchFailure = null;
+        }
+        return null;
+    }
+
+    private static final class Mutation<T> {
+        private final Supplier<T> action;
+        private final Consumer<? super T> onCommitted;
+        private final CountDownLatch done = new CountDownLatch(1);
+        // Written by the writer before done is counted down, read by the caller after.
+        private T result;
+        private Throwable failure;
+
+        private Mutation(Supplier<T> action, Consumer<? super T> onCommitted) {
+            this.action = action;
+            this.onCommitted = onCommitted;
+        }
+
+        private void apply() {
+            try {
+                result = action.get();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+        }
+
+        private void commit() {
+            if (failure == null) {
+                try {
+                    onCommitted.accept(result);
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                }
+            }
+            done.countDown();
+        }
+
+        private void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+            done.countDown();
+        }
+
+        private T await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    // The mutation may already be applied, so its outcome is still reported.
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+            return result;
+        }
+    }
+}
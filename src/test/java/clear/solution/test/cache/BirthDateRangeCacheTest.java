@@ -0,0 +1,94 @@
+package clear.solution.test.cache;
+
+import clear.solution.test.dto.RangeCacheStatsDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.event.UserChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BirthDateRangeCacheTest {
+    private static final LocalDate FROM_1990 = LocalDate.of(1990, 1, 1);
+    private static final LocalDate TO_2000 = LocalDate.of(2000, 1, 1);
+    private static final LocalDate TO_2010 = LocalDate.of(2010, 1, 1);
+
+    private final BirthDateRangeCache cache = new BirthDateRangeCache(2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testGet_LoadsOnceAndCountsHits() {
+        List<UserResponseDTO> first = cache.get(FROM_1990, TO_2000, this::load);
+        List<UserResponseDTO> second = cache.get(FROM_1990, TO_2000, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        RangeCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRatio());
+    }
+
+    @Test
+    void testOnUserChanged_DropsOnlyRangesContainingBirthDate() {
+        cache.get(FROM_1990, TO_2000, this::load);
+        cache.get(TO_2000, TO_2010, this::load);
+
+        cache.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, 1L, LocalDate.of(2005, 6, 1), null));
+        cache.get(FROM_1990, TO_2000, this::load);
+        cache.get(TO_2000, TO_2010, this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsedRange() {
+        cache.get(FROM_1990, TO_2000, this::load);
+        cache.get(TO_2000, TO_2010, this::load);
+        cache.get(FROM_1990, TO_2000, this::load);
+        cache.get(FROM_1990, TO_2010, this::load);
+
+        cache.get(FROM_1990, TO_2000, this::load);
+        assertEquals(3, loads.get());
+        cache.get(TO_2000, TO_2010, this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void testGet_DoesNotStoreResultLoadedDuringInvalidation() {
+        cache.get(FROM_1990, TO_2000, () -> {
+            cache.invalidate(LocalDate.of(1995, 1, 1));
+            return load();
+        });
+        cache.get(FROM_1990, TO_2000, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.stats().getMisses());
+    }
+
+    @Test
+    void testClear_DropsEntriesAndKeepsCountingStats() {
+        cache.get(FROM_1990, TO_2000, this::load);
+        cache.get(FROM_1990, TO_2000, this::load);
+
+        cache.clear();
+        cache.get(FROM_1990, TO_2000, this::load);
+
+        assertEquals(2, loads.get());
+        RangeCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    private List<UserResponseDTO> load() {
+        int load = loads.incrementAndGet();
+        return List.of(new UserResponseDTO((long) load, "user" + load + "@example.org", "Jane", "Doe",
+                LocalDate.of(1995, 1, 1), null, null));
+    }
+}
@@ -0,0 +1,86 @@
+package clear.solution.test.cache;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.event.UserChangedEvent;
+import clear.solution.test.mapper.UserMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserJsonCacheTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final UserJsonCache cache = new UserJsonCache(true, 2, new UserMapperImpl(), objectMapper);
+
+    @Test
+    void testToJson_ReusesBytesForUnchangedUser() {
+        User user = newUser();
+
+        byte[] first = cache.toJson(user);
+        byte[] second = cache.toJson(user);
+
+        assertSame(first, second);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertTrue(new String(first, StandardCharsets.UTF_8).contains("\"birthDate\":\"1990-05-15\""));
+    }
+
+    @Test
+    void testToJson_HitsForEqualUserAndRendersChangedCopyAgain() {
+        User user = newUser();
+        cache.toJson(user);
+
+        cache.toJson(newUser());
+        User changedUser = newUser();
+        changedUser.setAddress("New Address");
+        String json = new String(cache.toJson(changedUser), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("New Address"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void testToJson_EvictsBeyondMaxEntries() {
+        for (long id = 1; id <= 5; id++) {
+            User user = newUser();
+            user.setId(id);
+            cache.toJson(user);
+        }
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.evictionCount());
+    }
+
+    @Test
+    void testOnUserChanged_EvictsUpdatedAndDeletedUsers() {
+        User user = newUser();
+        cache.toJson(user);
+
+        cache.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.CREATED, 1L, user.getBirthDate(), user));
+        assertEquals(1, cache.size());
+        cache.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, 1L, user.getBirthDate(), user));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testToJson_DisabledCacheStoresNothing() {
+        UserJsonCache disabled = new UserJsonCache(false, 2, new UserMapperImpl(), objectMapper);
+
+        disabled.toJson(newUser());
+
+        assertEquals(0, disabled.size());
+        assertEquals(0, disabled.missCount());
+    }
+
+    private static User newUser() {
+        return new User(1L, "test@example.com", "John", "Doe", LocalDate.of(1990, 5, 15), "Address", "123");
+    }
+}
@@ -0,0 +1,88 @@
+package clear.solution.test.changelog;
+
+import clear.solution.test.changelog.UserChangeLog.ChangeBatch;
+import clear.solution.test.dto.UserChangeDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.event.UserChangedEvent;
+import clear.solution.test.mapper.UserMapperImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserChangeLogTest {
+    private final UserChangeLog changeLog = new UserChangeLog(4, 50, new UserMapperImpl());
+
+    @Test
+    void testRead_ResumesFromSequence() {
+        publish(UserChangedEvent.Type.CREATED, 1L);
+        publish(UserChangedEvent.Type.UPDATED, 1L);
+        publish(UserChangedEvent.Type.DELETED, 1L);
+
+        ChangeBatch batch = changeLog.read(2, 10);
+
+        assertFalse(batch.truncated());
+        assertEquals(List.of(2L, 3L), sequences(batch));
+        assertEquals(4, batch.nextSequence());
+        assertEquals("jane.doe@example.org", batch.changes().get(0).getUser().getEmail());
+        assertNull(batch.changes().get(1).getUser());
+        assertTrue(changeLog.read(4, 10).changes().isEmpty());
+    }
+
+    @Test
+    void testRead_ReportsOverwrittenChangesAsTruncated() {
+        for (long id = 1; id <= 6; id++) {
+            publish(UserChangedEvent.Type.CREATED, id);
+        }
+
+        ChangeBatch batch = changeLog.read(1, 10);
+
+        assertTrue(batch.truncated());
+        assertEquals(3, batch.firstSequence());
+        assertEquals(List.of(3L, 4L, 5L, 6L), sequences(batch));
+    }
+
+    @Test
+    void testRead_SequenceAheadOfLogIsTruncated() {
+        publish(UserChangedEvent.Type.CREATED, 1L);
+
+        ChangeBatch batch = changeLog.read(100, 10);
+
+        assertTrue(batch.truncated());
+        assertEquals(List.of(1L), sequences(batch));
+    }
+
+    @Test
+    void testRead_FromStartOfEmptyLog() {
+        ChangeBatch batch = changeLog.read(1, 10);
+
+        assertFalse(batch.truncated());
+        assertTrue(batch.changes().isEmpty());
+        assertEquals(1, batch.nextSequence());
+    }
+
+    @Test
+    void testSequenceAfter_ResumesOnlyFromEventIdsOfThisRun() {
+        publish(UserChangedEvent.Type.CREATED, 1L);
+        publish(UserChangedEvent.Type.UPDATED, 1L);
+        String earlierRunEventId = new UserChangeLog(4, 50, new UserMapperImpl()).eventId(1);
+
+        assertEquals(2, changeLog.sequenceAfter(changeLog.eventId(1)));
+        assertFalse(changeLog.read(changeLog.sequenceAfter(changeLog.eventId(1)), 10).truncated());
+        ChangeBatch batch = changeLog.read(changeLog.sequenceAfter(earlierRunEventId), 10);
+        assertTrue(batch.truncated());
+        assertEquals(List.of(1L, 2L), sequences(batch));
+        assertTrue(changeLog.read(changeLog.sequenceAfter("1"), 10).truncated());
+    }
+
+    private void publish(UserChangedEvent.Type type, Long id) {
+        User user = new User(id, "jane.doe@example.org", "Jane", "Doe", LocalDate.of(1997, 7, 13), null, null);
+        changeLog.onUserChanged(new UserChangedEvent(type, id, user.getBirthDate(), user));
+    }
+
+    private static List<Long> sequences(ChangeBatch batch) {
+        return batch.changes().stream().map(UserChangeDTO::getSequence).toList();
+    }
+}
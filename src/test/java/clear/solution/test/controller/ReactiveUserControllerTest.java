@@ -0,0 +1,177 @@
+package clear.solution.test.controller;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.exception.UserNotFoundException;
+import clear.solution.test.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveUserControllerTest {
+    @MockBean
+    private UserService userService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void createUser() {
+        UserRequestDTO userToSave = new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1997, 07, 13), "42 Main St", "3800000000");
+        when(userService.createUser(any(User.class))).thenReturn(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"));
+
+        webTestClient.post()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userToSave)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo("jane.doe@example.org");
+    }
+
+    @Test
+    public void createUser_badRequestWhenInvalidEmail() {
+        UserRequestDTO userToSave = new UserRequestDTO("jane.doe", "Jane", "Doe",
+                LocalDate.of(1997, 07, 13), "42 Main St", "3800000000");
+
+        webTestClient.post()
+                .uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userToSave)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.response_code").isEqualTo("400")
+                .jsonPath("$.message").isEqualTo("Invalid email format. ");
+    }
+
+    @Test
+    public void findUserByEmail_userNotFound() {
+        when(userService.findUserByEmail("bob.ten@example.org"))
+                .thenThrow(new UserNotFoundException("User not found for this email: bob.ten@example.org"));
+
+        webTestClient.get()
+                .uri("/users/by-email/{email}", "bob.ten@example.org")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("User not found for this email: bob.ten@example.org");
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_streamsJsonArray() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        when(userService.streamUsersByBirthDateRange(fromDate, toDate)).thenReturn(Stream.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), "57 Main St", "3800000000")));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/users")
+                        .queryParam("fromDate", fromDate)
+                        .queryParam("toDate", toDate)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].email").isEqualTo("bob.ten@example.org");
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_readsUsersOffTheEventLoop() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        List<String> readingThreads = new CopyOnWriteArrayList<>();
+        when(userService.streamUsersByBirthDateRange(fromDate, toDate)).thenReturn(Stream.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), "57 Main St", "3800000000"))
+                .peek(user -> readingThreads.add(Thread.currentThread().getName())));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/users")
+                        .queryParam("fromDate", fromDate)
+                        .queryParam("toDate", toDate)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserResponseDTO.class)
+                .hasSize(2);
+
+        assertEquals(2, readingThreads.size());
+        assertTrue(readingThreads.stream().allMatch(thread -> thread.startsWith("boundedElastic")),
+                readingThreads::toString);
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_badRequestWhenFromDateIsGreaterThanToDate() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 02);
+        LocalDate toDate = LocalDate.of(1996, 01, 01);
+        when(userService.streamUsersByBirthDateRange(fromDate, toDate))
+                .thenThrow(new IllegalArgumentException("fromDate must be less than toDate"));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/users")
+                        .queryParam("fromDate", fromDate)
+                        .queryParam("toDate", toDate)
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("fromDate must be less than toDate");
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_pageSetsNextCursor() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        when(userService.findUsersByBirthDateRange(fromDate, toDate, null, 2)).thenReturn(List.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), "57 Main St", "3800000000")));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/users")
+                        .queryParam("fromDate", fromDate)
+                        .queryParam("toDate", toDate)
+                        .queryParam("limit", 1)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(UserController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(1);
+    }
+}
@@ -1,11 +1,24 @@
 package clear.solution.test.controller;
 
+import clear.solution.test.cache.BirthDateRangeCache;
+import clear.solution.test.converter.UserProtobufCodec;
+import clear.solution.test.converter.UserProtobufHttpMessageConverter;
+import clear.solution.test.dto.BirthDateCursor;
+import clear.solution.test.dto.RangeCacheStatsDTO;
 import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
 import clear.solution.test.entity.User;
+import clear.solution.test.exception.DuplicateEmailException;
 import clear.solution.test.exception.InvalidAgeException;
 import clear.solution.test.exception.UserNotFoundException;
+import clear.solution.test.index.BirthDateKey;
 import clear.solution.test.mapper.UserMapper;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.UserPatch;
 import clear.solution.test.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.restassured.http.ContentType;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,15 +28,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -38,9 +63,16 @@ class UserControllerTest {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private BirthDateRangeCache birthDateRangeCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     public void setUp() {
         RestAssuredMockMvc.mockMvc(mockMvc);
+        birthDateRangeCache.clear();
     }
 
     @Test
@@ -131,6 +163,20 @@ class UserControllerTest {
                 .statusCode(400);
     }
 
+    @Test
+    public void createUser_badRequestWhenAddressIsLongerThanItsColumn() {
+        UserRequestDTO userToSave = new UserRequestDTO("jane.doe@gmail.com", "Jane", "Doe",
+                LocalDate.of(1997, 07, 13), "a".repeat(User.MAX_ADDRESS_LENGTH + 1), "3800000000");
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(userToSave)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     public void createUser_badRequestWhenBirthDateIsNull() {
         UserRequestDTO userToSave = new UserRequestDTO("jane.doe@gmail.com", "Jane", "Doe",
@@ -163,11 +209,42 @@ class UserControllerTest {
                 .statusCode(400);
     }
 
+    @Test
+    public void createUsers() {
+        UserRequestDTO validUser = new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1997, 07, 13), "42 Main St", "3800000000");
+        UserRequestDTO invalidUser = new UserRequestDTO("bob.ten", "Bob", "Ten",
+                LocalDate.of(1998, 05, 15), "57 Main St", "3800000000");
+        UserRequestDTO youngUser = new UserRequestDTO("young.kid@example.org", "Young", "Kid",
+                LocalDate.now().minusDays(1L), "1 Main St", "3800000001");
+        when(userService.createUsers(List.of(userMapper.mapToUser(validUser), userMapper.mapToUser(youngUser))))
+                .thenReturn(List.of(
+                        BatchCreateResult.created(new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                                LocalDate.of(1997, 07, 13), "42 Main St", "3800000000")),
+                        BatchCreateResult.failed("User is under the minimum age.")));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(List.of(validUser, invalidUser, youngUser))
+                .when()
+                .post("/users/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("[0].responseCode", equalTo(200))
+                .body("[0].user.id", equalTo(1))
+                .body("[1].index", equalTo(1))
+                .body("[1].responseCode", equalTo(400))
+                .body("[1].message", startsWith("Invalid email format"))
+                .body("[2].responseCode", equalTo(400))
+                .body("[2].message", equalTo("User is under the minimum age."));
+    }
+
     @Test
     public void updateUserFields() {
-        Map<String, Object> fieldsToUpdate = Map.of("email", "jane.doe@example.org", "firstName", "Jane", "LastName", "Doe",
-                "birthDate", LocalDate.of(1997, 07, 13).toString(), "address", "42 Main St", "phoneNumber", "6625550144");
-        when(userService.updateUserFields(1L, fieldsToUpdate)).thenReturn(
+        Map<String, Object> fieldsToUpdate = Map.of("email", "jane.doe@example.org", "firstName", "Jane", "lastName", "Doe",
+                "address", "42 Main St", "phoneNumber", "6625550144");
+        when(userService.updateUserFields(eq(1L), any(UserPatch.class))).thenReturn(
                 new User(1L, "jane.doe@example.org", "Jane", "Doe",
                         LocalDate.of(1997, 07, 13), "42 Main St", "6625550144"));
 
@@ -187,6 +264,32 @@ class UserControllerTest {
                 .body("phoneNumber", equalTo("6625550144"));
     }
 
+    @Test
+    public void updateUserFields_badRequestWhenValueHasWrongType() {
+        RestAssuredMockMvc.given()
+                .contentType("application/merge-patch+json")
+                .body("{\"firstName\": 42}")
+                .when()
+                .patch("/users/1")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("Field firstName must be a string."));
+
+        verify(userService, never()).updateUserFields(anyLong(), any(UserPatch.class));
+    }
+
+    @Test
+    public void updateUserFields_badRequestWhenChangingBirthDate() {
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body("{\"birthDate\": \"1997-07-13\"}")
+                .when()
+                .patch("/users/1")
+                .then()
+                .statusCode(400)
+                .body("message", equalTo("User can't change DOB"));
+    }
+
     @Test
     public void updateUser() {
         UserRequestDTO userToUpdate = new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
@@ -335,6 +438,108 @@ class UserControllerTest {
         verify(userService).deletedUser(userId);
     }
 
+    @Test
+    public void createUser_conflictWhenEmailIsTaken() {
+        UserRequestDTO userToSave = new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1997, 07, 13), "42 Main St", "3800000000");
+        when(userService.createUser(userMapper.mapToUser(userToSave))).thenThrow(DuplicateEmailException.class);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(userToSave)
+                .when()
+                .post("/users")
+                .then()
+                .statusCode(409);
+    }
+
+    @Test
+    public void findUserByEmail() {
+        when(userService.findUserByEmail("jane.doe@example.org")).thenReturn(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/users/by-email/{email}", "jane.doe@example.org")
+                .then()
+                .statusCode(200)
+                .body("id", equalTo(1))
+                .body("email", equalTo("jane.doe@example.org"));
+    }
+
+    @Test
+    public void findUserByEmail_userNotFound() {
+        when(userService.findUserByEmail("bob.ten@example.org")).thenThrow(UserNotFoundException.class);
+        double notFoundBefore = notFoundCount();
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/users/by-email/{email}", "bob.ten@example.org")
+                .then()
+                .statusCode(404);
+
+        assertEquals(notFoundBefore + 1, notFoundCount());
+    }
+
+    @Test
+    public void searchUsersByName() {
+        when(userService.searchUsersByName("nik", 10)).thenReturn(List.of(
+                new User(1L, "nikita.kovalenko@example.org", "Nikita", "Kovalenko",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000")));
+
+        RestAssuredMockMvc.given()
+                .queryParam("q", "nik")
+                .when()
+                .get("/users/search")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].firstName", equalTo("Nikita"));
+    }
+
+    @Test
+    public void searchUsersByName_limitTooLarge() {
+        RestAssuredMockMvc.given()
+                .queryParam("q", "nik")
+                .queryParam("limit", 500)
+                .when()
+                .get("/users/search")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_servesRepeatedRangeFromCache() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        when(userService.findUsersByBirthDateRange(fromDate, toDate)).thenReturn(List.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000")));
+        // The cache bean is shared by the tests and its counters never reset, so only their change counts.
+        RangeCacheStatsDTO before = birthDateRangeCache.stats();
+
+        for (int i = 0; i < 2; i++) {
+            RestAssuredMockMvc.given()
+                    .queryParam("fromDate", fromDate.toString())
+                    .queryParam("toDate", toDate.toString())
+                    .when()
+                    .get("/users")
+                    .then()
+                    .statusCode(200)
+                    .body("[0].email", equalTo("jane.doe@example.org"));
+        }
+
+        verify(userService, times(1)).findUsersByBirthDateRange(fromDate, toDate);
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/users/cache/stats")
+                .then()
+                .statusCode(200)
+                .body("hits", equalTo((int) before.getHits() + 1))
+                .body("misses", equalTo((int) before.getMisses() + 1));
+    }
+
     @Test
     public void findUsersByBirthDateRange() {
         LocalDate fromDate = LocalDate.of(1996, 01, 01);
@@ -366,6 +571,86 @@ class UserControllerTest {
                 .body("[0].phoneNumber", equalTo("3800000000"));
     }
 
+    @Test
+    public void findUsersByBirthDateRange_Protobuf() throws Exception {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        when(userService.findUsersByBirthDateRange(fromDate, toDate)).thenReturn(List.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), null, "3800000000")));
+
+        byte[] body = mockMvc.perform(get("/users")
+                        .accept(UserProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .param("fromDate", fromDate.toString())
+                        .param("toDate", toDate.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertEquals(List.of(
+                new UserResponseDTO(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new UserResponseDTO(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), null, "3800000000")),
+                UserProtobufCodec.decodeResponses(body));
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_Cbor() throws Exception {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        when(userService.findUsersByBirthDateRange(fromDate, toDate)).thenReturn(List.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000")));
+
+        byte[] body = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .param("fromDate", fromDate.toString())
+                        .param("toDate", toDate.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        List<?> users = new ObjectMapper(new CBORFactory()).readValue(body, List.class);
+        Map<?, ?> user = (Map<?, ?>) users.get(0);
+        assertEquals("jane.doe@example.org", user.get("email"));
+        assertEquals("1997-07-13", user.get("birthDate"));
+    }
+
+    @Test
+    public void createUser_Protobuf() throws Exception {
+        UserRequestDTO userToSave = new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1997, 07, 13), "42 Main St", "3800000000");
+        when(userService.createUser(userMapper.mapToUser(userToSave))).thenReturn(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"));
+
+        byte[] body = mockMvc.perform(post("/users")
+                        .contentType(UserProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .accept(UserProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(UserProtobufCodec.encodeRequest(userToSave)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        UserResponseDTO createdUser = UserProtobufCodec.decodeResponse(body);
+        assertEquals(1L, createdUser.getId());
+        assertEquals(LocalDate.of(1997, 07, 13), createdUser.getBirthDate());
+    }
+
+    @Test
+    public void createUser_ProtobufBadRequestWhenMalformed() throws Exception {
+        mockMvc.perform(post("/users")
+                        .contentType(UserProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .content(new byte[]{10, 100, 1}))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void findUsersByBirthDateRange_BadRequestWhenFromDateIsGreaterThanToDate() {
         LocalDate fromDate = LocalDate.of(1996, 01, 02);
@@ -382,4 +667,158 @@ class UserControllerTest {
                 .then()
                 .statusCode(400);
     }
+
+    @Test
+    public void findUsersByBirthDateRange_firstPageReturnsNextCursor() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        List<User> mockUser = List.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), "57 Main St", "3800000000"),
+                new User(3L, "alice.kim@example.org", "Alice", "Kim",
+                        LocalDate.of(1999, 04, 20), "90 Main St", "3800011100")
+        );
+        when(userService.findUsersByBirthDateRange(fromDate, toDate, null, 3)).thenReturn(mockUser);
+
+        RestAssuredMockMvc.given()
+                .queryParam("fromDate", fromDate.toString())
+                .queryParam("toDate", toDate.toString())
+                .queryParam("limit", 2)
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(200)
+                .header(UserController.NEXT_CURSOR_HEADER,
+                        equalTo(BirthDateCursor.encode(new BirthDateKey(LocalDate.of(1998, 05, 15), 2L))))
+                .body("size()", equalTo(2))
+                .body("[1].id", equalTo(2));
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_lastPageHasNoNextCursor() {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        BirthDateKey after = new BirthDateKey(LocalDate.of(1998, 05, 15), 2L);
+        when(userService.findUsersByBirthDateRange(fromDate, toDate, after, 3)).thenReturn(List.of(
+                new User(3L, "alice.kim@example.org", "Alice", "Kim",
+                        LocalDate.of(1999, 04, 20), "90 Main St", "3800011100")));
+
+        RestAssuredMockMvc.given()
+                .queryParam("fromDate", fromDate.toString())
+                .queryParam("toDate", toDate.toString())
+                .queryParam("limit", 2)
+                .queryParam("cursor", BirthDateCursor.encode(after))
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(200)
+                .header(UserController.NEXT_CURSOR_HEADER, nullValue())
+                .body("size()", equalTo(1))
+                .body("[0].id", equalTo(3));
+    }
+
+    @Test
+    public void countUsersByBirthYear() {
+        when(userService.countUsersByBirthDateRange(LocalDate.of(1996, 12, 31), LocalDate.of(1998, 01, 01))).thenReturn(7L);
+        when(userService.countUsersByBirthDateRange(LocalDate.of(1997, 12, 31), LocalDate.of(1999, 01, 01))).thenReturn(3L);
+
+        RestAssuredMockMvc.given()
+                .queryParam("fromYear", 1997)
+                .queryParam("toYear", 1998)
+                .when()
+                .get("/users/stats/birth-years")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(2))
+                .body("[0].year", equalTo(1997))
+                .body("[0].count", equalTo(7))
+                .body("[1].count", equalTo(3));
+    }
+
+    @Test
+    public void countUsersByAge_LastBucketIsOpenEnded() {
+        RestAssuredMockMvc.given()
+                .queryParam("bucketSize", 30)
+                .queryParam("maxAge", 60)
+                .when()
+                .get("/users/stats/ages")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("[1].minAge", equalTo(30))
+                .body("[1].maxAge", equalTo(59))
+                .body("[2].minAge", equalTo(60))
+                .body("[2].maxAge", nullValue());
+    }
+
+    @Test
+    public void countUsersByAge_BadRequestWhenBucketSizeExceedsMaxAge() {
+        RestAssuredMockMvc.given()
+                .queryParam("bucketSize", 50)
+                .queryParam("maxAge", 20)
+                .when()
+                .get("/users/stats/ages")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void findUsersByBirthDateRange_BadRequestWhenCursorIsInvalid() {
+        RestAssuredMockMvc.given()
+                .queryParam("fromDate", "1996-01-01")
+                .queryParam("toDate", "2000-01-01")
+                .queryParam("cursor", "not a cursor")
+                .when()
+                .get("/users")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void streamUsersByBirthDateRange() throws Exception {
+        LocalDate fromDate = LocalDate.of(1996, 01, 01);
+        LocalDate toDate = LocalDate.of(2000, 01, 01);
+        when(userService.streamUsersByBirthDateRange(fromDate, toDate)).thenReturn(Stream.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                        LocalDate.of(1997, 07, 13), "42 Main St", "3800000000"),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1998, 05, 15), "57 Main St", "3800000000")));
+
+        MvcResult result = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("fromDate", fromDate.toString())
+                        .param("toDate", toDate.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"email\":\"jane.doe@example.org\""));
+        assertTrue(lines[1].startsWith("{\"id\":2,\"email\":\"bob.ten@example.org\""));
+    }
+
+    @Test
+    public void streamUsersByBirthDateRange_BadRequestWhenFromDateIsGreaterThanToDate() throws Exception {
+        LocalDate fromDate = LocalDate.of(1996, 01, 02);
+        LocalDate toDate = LocalDate.of(1996, 01, 01);
+        when(userService.streamUsersByBirthDateRange(fromDate, toDate)).thenThrow(IllegalArgumentException.class);
+
+        mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+                        .param("fromDate", fromDate.toString())
+                        .param("toDate", toDate.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private double notFoundCount() {
+        return meterRegistry.counter("users.http.errors", "status", "404",
+                "exception", UserNotFoundException.class.getSimpleName()).count();
+    }
 }
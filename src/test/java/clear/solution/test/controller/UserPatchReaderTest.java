@@ -0,0 +1,57 @@
+package clear.solution.test.controller;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.service.UserPatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPatchReaderTest {
+    private final UserPatchReader userPatchReader = new UserPatchReader(new ObjectMapper());
+
+    @Test
+    void testRead_AppliesOnlyPresentFields() {
+        User user = new User(1L, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144");
+
+        UserPatch patch = read("{\"lastName\": \"Smith\", \"address\": null}");
+        patch.applyTo(user);
+
+        assertFalse(patch.contains(UserPatch.Field.EMAIL));
+        assertEquals(new User(1L, "jane.doe@example.org", "Jane", "Smith",
+                LocalDate.of(1990, 1, 1), null, "6625550144"), user);
+    }
+
+    @Test
+    void testRead_EmptyObjectIsEmptyPatch() {
+        assertTrue(read(" { } ").isEmpty());
+    }
+
+    @Test
+    void testRead_RejectsInvalidBodies() {
+        assertEquals("Field phoneNumber must be a string.",
+                assertThrows(IllegalArgumentException.class, () -> read("{\"phoneNumber\": 380}")).getMessage());
+        assertEquals("Field address must be a string.",
+                assertThrows(IllegalArgumentException.class, () -> read("{\"address\": {\"city\": \"Kyiv\"}}")).getMessage());
+        assertEquals("Field firstName is required.",
+                assertThrows(IllegalArgumentException.class, () -> read("{\"firstName\": null}")).getMessage());
+        assertEquals("Field country not found on User.",
+                assertThrows(IllegalArgumentException.class, () -> read("{\"country\": \"Ukraine\"}")).getMessage());
+        assertEquals("Field phoneNumber must be at most 64 characters.",
+                assertThrows(IllegalArgumentException.class,
+                        () -> read("{\"phoneNumber\": \"" + "1".repeat(65) + "\"}")).getMessage());
+        assertEquals("User can't change DOB",
+                assertThrows(IllegalArgumentException.class, () -> read("{\"birthDate\": \"1990-01-01\"}")).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> read("[]"));
+        assertThrows(IllegalArgumentException.class, () -> read("{\"lastName\": \"Smith\"} {}"));
+        assertThrows(IllegalArgumentException.class, () -> read("{\"lastName\": "));
+    }
+
+    private UserPatch read(String body) {
+        return userPatchReader.read(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package clear.solution.test.converter;
+
+import clear.solution.test.dto.UserRequestDTO;
+import clear.solution.test.dto.UserResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserProtobufCodecTest {
+
+    @Test
+    void testResponses_RoundTripLargeList() throws IOException {
+        List<UserResponseDTO> users = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            users.add(new UserResponseDTO(id, "user" + id + "@example.org", "Jane", "Doe",
+                    LocalDate.of(1950, 1, 1).plusDays(id * 20), "42 Main St", null));
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        UserProtobufCodec.writeResponses(users, outputStream);
+
+        assertEquals(users, UserProtobufCodec.decodeResponses(outputStream.toByteArray()));
+    }
+
+    @Test
+    void testEncodeResponse_BirthDateIsZigzagEpochDay() {
+        UserResponseDTO user = new UserResponseDTO(null, null, null, null, LocalDate.of(1969, 12, 31), null, null);
+
+        byte[] bytes = UserProtobufCodec.encodeResponse(user);
+
+        // Field 5 as a varint, then zigzag(-1) = 1.
+        assertArrayEquals(new byte[]{5 << 3, 1}, bytes);
+        assertEquals(user, UserProtobufCodec.decodeResponse(bytes));
+    }
+
+    @Test
+    void testDecodeRequest_SkipsUnknownFields() {
+        UserRequestDTO user = new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1997, 7, 13), null, "3800000000");
+        byte[] known = UserProtobufCodec.encodeRequest(user);
+        byte[] withUnknown = new byte[known.length + 3];
+        // Field 15 as a length-delimited value of one byte.
+        withUnknown[0] = 15 << 3 | 2;
+        withUnknown[1] = 1;
+        withUnknown[2] = 42;
+        System.arraycopy(known, 0, withUnknown, 3, known.length);
+
+        assertEquals(user, UserProtobufCodec.decodeRequest(withUnknown));
+    }
+
+    @Test
+    void testDecodeRequest_TruncatedMessageIsRejected() {
+        byte[] bytes = UserProtobufCodec.encodeRequest(new UserRequestDTO("jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1997, 7, 13), null, null));
+        byte[] truncated = Arrays.copyOf(bytes, 10);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> UserProtobufCodec.decodeRequest(truncated));
+        assertTrue(exception.getMessage().startsWith("Malformed protobuf message"));
+    }
+}
@@ -0,0 +1,127 @@
+package clear.solution.test.export;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.dto.UserResponseDTO;
+import clear.solution.test.export.UserExporter.ExportResult;
+import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExporterTest {
+    // Configured like Spring Boot's mapper, which writes dates as ISO strings.
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+    private final UserWriter userWriter = new UserWriter(userRepository, 4, 3);
+    private final UserExporter userExporter = new UserExporter(userRepository, userWriter, new UserMapperImpl(),
+            objectMapper);
+
+    @Test
+    void testExport_GzipNdjson() throws IOException {
+        userRepository.saveAll(List.of(
+                new User(1L, "jane.doe@example.org", "Jane", "Doe", LocalDate.of(1990, 1, 1), "42 Main St", null),
+                new User(2L, "bob.ten@example.org", "Bob", "Ten", LocalDate.of(1991, 2, 3), null, "6625550144")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ExportResult result = userExporter.export(Channels.newChannel(output), UserExportFormat.NDJSON,
+                UserExportCompression.GZIP);
+
+        assertEquals(2, result.users());
+        assertEquals(output.size(), result.bytes());
+        String[] lines = gunzip(output.toByteArray()).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode jane = objectMapper.readTree(lines[0].contains("jane") ? lines[0] : lines[1]);
+        assertEquals(1, jane.get("id").asLong());
+        assertEquals("1990-01-01", jane.get("birthDate").asText());
+    }
+
+    @Test
+    void testExport_CsvQuotesFieldsThatNeedIt() throws IOException {
+        userRepository.save(new User(7L, "jane.doe@example.org", "Jane", "Doe", LocalDate.of(1990, 1, 1),
+                "42 Main St, Apt \"B\"", null));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        userExporter.export(Channels.newChannel(output), UserExportFormat.CSV, UserExportCompression.NONE);
+
+        assertEquals(UserExporter.CSV_HEADER + "\n"
+                        + "7,jane.doe@example.org,Jane,Doe,1990-01-01,\"42 Main St, Apt \"\"B\"\"\",\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExport_IgnoresWritesMadeWhileItRuns() throws IOException {
+        for (long id = 1; id <= 10; id++) {
+            userRepository.save(new User(id, "user" + id + "@example.org", "Jane", "Doe",
+                    LocalDate.of(1990, 1, 1), null, null));
+        }
+        UserExporter changingExporter = new UserExporter(userRepository, userWriter, new UserMapperImpl() {
+            @Override
+            public UserResponseDTO mapToUserResponse(User user) {
+                // Every other user is deleted and a new one created as soon as the first row is written.
+                if (userRepository.findById(11L).isEmpty()) {
+                    userWriter.execute(() -> {
+                        for (long id = 1; id <= 10; id++) {
+                            if (id != user.getId()) {
+                                userRepository.deleteById(id);
+                            }
+                        }
+                        return userRepository.save(new User(11L, "new@example.org", "Bob", "Ten",
+                                LocalDate.of(1991, 2, 3), null, null));
+                    }, created -> {
+                    });
+                }
+                return super.mapToUserResponse(user);
+            }
+        }, objectMapper);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ExportResult result = changingExporter.export(Channels.newChannel(output), UserExportFormat.NDJSON,
+                UserExportCompression.NONE);
+
+        assertEquals(10, result.users());
+        assertFalse(output.toString(StandardCharsets.UTF_8).contains("new@example.org"));
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void testExport_EmptyStoreWritesOnlyHeader() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ExportResult result = userExporter.export(Channels.newChannel(output), UserExportFormat.CSV,
+                UserExportCompression.GZIP);
+
+        assertEquals(0, result.users());
+        assertEquals(UserExporter.CSV_HEADER + "\n", gunzip(output.toByteArray()));
+    }
+
+    @Test
+    void testFromFileName_ReadsCompressionThenFormat() {
+        assertEquals(UserExportCompression.ZSTD, UserExportCompression.fromFileName("users.csv.zst"));
+        assertEquals(UserExportCompression.NONE, UserExportCompression.fromFileName("users.ndjson"));
+        assertEquals(UserExportFormat.CSV, UserExportFormat.fromFileName("users.csv"));
+        assertThrows(IllegalArgumentException.class, () -> UserExportFormat.fromFileName("users.json"));
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
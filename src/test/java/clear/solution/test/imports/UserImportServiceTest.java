@@ -0,0 +1,209 @@
+package clear.solution.test.imports;
+
+import clear.solution.test.dto.RejectedRowDTO;
+import clear.solution.test.dto.UserImportJobDTO;
+import clear.solution.test.entity.User;
+import clear.solution.test.export.UserExportCompression;
+import clear.solution.test.export.UserExportFormat;
+import clear.solution.test.export.UserExporter;
+import clear.solution.test.index.BirthDateIndex;
+import clear.solution.test.index.EmailIndex;
+import clear.solution.test.index.NameSearchIndex;
+import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.impl.UserServiceImpl;
+import clear.solution.test.service.impl.UserWriter;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportServiceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testImport_NdjsonReportsRejectedRows() throws Exception {
+        Files.writeString(directory.resolve("users.ndjson"), """
+                {"email":"jane.doe@example.org","firstName":"Jane","lastName":"Again","birthDate":"1990-01-01"}
+                {"email":"bob.ten@example.org","firstName":"Bob","lastName":"Ten","birthDate":"1991-02-03"}
+
+                {"email":"","firstName":"No","lastName":"Email","birthDate":"1990-01-01"}
+                {"email":"kid@example.org","firstName":"Kid","lastName":"Doe","birthDate":"%s"}
+                {"email":"alice.kim@example.org","firstName":"Alice","lastName":"Kim","birthDate":"1992-03-04"}
+                {not json
+                """.formatted(LocalDate.now().minusYears(5)));
+        UserServiceImpl userService = newUserService();
+        userService.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe", LocalDate.of(1990, 1, 1), null, null));
+
+        UserImportJobDTO job = awaitJob(newImportService(userService), "users.ndjson", null);
+
+        assertEquals(UserImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(UserImportFormat.NDJSON, job.getFormat());
+        assertEquals(6, job.getRowsRead());
+        assertEquals(2, job.getImported());
+        assertEquals(4, job.getRejected());
+        assertEquals(List.of(1L, 4L, 5L, 7L), job.getRejectedRows().stream().map(RejectedRowDTO::getLine).sorted().toList());
+        assertEquals(job.getFileSize(), job.getBytesRead());
+        assertEquals("Ten", userService.findUserByEmail("bob.ten@example.org").getLastName());
+    }
+
+    @Test
+    void testImport_CsvWithQuotedFields() throws Exception {
+        Files.writeString(directory.resolve("users.csv"), """
+                lastName,firstName,email,birthDate,address
+                Doe,Jane,jane.doe@example.org,1990-01-01,"42 Main St, Apt ""B""\"
+                Ten,Bob,bob.ten@example.org,not a date,
+                """);
+        UserServiceImpl userService = newUserService();
+
+        UserImportJobDTO job = awaitJob(newImportService(userService), "users.csv", null);
+
+        assertEquals(UserImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getImported());
+        assertEquals(List.of(new RejectedRowDTO(3, "Invalid birth date: not a date")), job.getRejectedRows());
+        User jane = userService.findUserByEmail("jane.doe@example.org");
+        assertEquals("42 Main St, Apt \"B\"", jane.getAddress());
+        assertNull(jane.getPhoneNumber());
+    }
+
+    @Test
+    void testImport_CsvIgnoresExportedIdColumn() throws Exception {
+        Files.writeString(directory.resolve("users.csv"), """
+                id,email,firstName,lastName,birthDate,address,phoneNumber
+                7,jane.doe@example.org,Jane,Doe,1990-01-01,,
+                """);
+        UserServiceImpl userService = newUserService();
+
+        UserImportJobDTO job = awaitJob(newImportService(userService), "users.csv", null);
+
+        assertEquals(1, job.getImported());
+        assertEquals(1L, userService.findUserByEmail("jane.doe@example.org").getId().longValue());
+    }
+
+    @Test
+    void testImport_ReadsBackExportedCsvWithLineBreaks() throws Exception {
+        InMemoryUserRepository exportedRepository = new InMemoryUserRepository();
+        exportedRepository.save(new User(7L, "jane.doe@example.org", "Jane", "Doe", LocalDate.of(1990, 1, 1),
+                "42 Main St\nApt \"B\"\r\n\nBack door", "6625550144"));
+        try (FileChannel channel = FileChannel.open(directory.resolve("users.csv"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            new UserExporter(exportedRepository, new UserWriter(exportedRepository, 4, 3), new UserMapperImpl(),
+                    Jackson2ObjectMapperBuilder.json().build())
+                    .export(channel, UserExportFormat.CSV, UserExportCompression.NONE);
+        }
+        Files.writeString(directory.resolve("users.csv"),
+                "Ten,Bob,bob.ten@example.org,1991-02-03,\"\n", StandardOpenOption.APPEND);
+        UserServiceImpl userService = newUserService();
+
+        UserImportJobDTO job = awaitJob(newImportService(userService), "users.csv", null);
+
+        assertEquals(1, job.getImported());
+        assertEquals(List.of(new RejectedRowDTO(6, "Unterminated quoted CSV field")), job.getRejectedRows());
+        assertEquals("42 Main St\nApt \"B\"\r\n\nBack door",
+                userService.findUserByEmail("jane.doe@example.org").getAddress());
+    }
+
+    @Test
+    void testImport_UnknownCsvColumnFailsJob() throws Exception {
+        Files.writeString(directory.resolve("users.csv"), "email,nickname\njane.doe@example.org,jd\n");
+
+        UserImportJobDTO job = awaitJob(newImportService(newUserService()), "users.csv", UserImportFormat.CSV);
+
+        assertEquals(UserImportJob.Status.FAILED, job.getStatus());
+        assertEquals("Unknown CSV column: nickname", job.getError());
+        assertEquals(0, job.getRowsRead());
+    }
+
+    @Test
+    void testImport_RejectsLinesOverMaxLength() throws Exception {
+        Files.writeString(directory.resolve("users.ndjson"),
+                "{\"email\":\"jane.doe@example.org\",\"firstName\":\"Jane\",\"lastName\":\"Doe\","
+                        + "\"birthDate\":\"1990-01-01\",\"address\":\"" + "x".repeat(500) + "\"}\r\n"
+                        + "{\"email\":\"bob.ten@example.org\",\"firstName\":\"Bob\",\"lastName\":\"Ten\","
+                        + "\"birthDate\":\"1991-02-03\"}\r\n");
+        UserServiceImpl userService = newUserService();
+
+        UserImportJobDTO job = awaitJob(newImportService(userService), "users.ndjson", null);
+
+        assertEquals(UserImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getImported());
+        assertEquals(List.of(new RejectedRowDTO(1, "Line is longer than 256 characters")), job.getRejectedRows());
+        assertEquals("Ten", userService.findUserByEmail("bob.ten@example.org").getLastName());
+    }
+
+    @Test
+    void testFindJob_ForgetsOldestFinishedJobsBeyondMaxJobs() throws Exception {
+        Files.writeString(directory.resolve("users.ndjson"), "");
+        UserImportService importService = newImportService(newUserService(), 1);
+        try {
+            String firstJobId = importService.start("users.ndjson", null).getId();
+            String secondJobId = importService.start("users.ndjson", null).getId();
+            awaitJob(importService, secondJobId);
+
+            assertTrue(importService.findJob(firstJobId).isEmpty());
+            assertEquals(UserImportJob.Status.COMPLETED, importService.findJob(secondJobId).orElseThrow().getStatus());
+        } finally {
+            importService.shutdown();
+        }
+    }
+
+    @Test
+    void testStart_RejectsFilesOutsideImportDirectory() {
+        UserImportService importService = newImportService(newUserService());
+
+        assertThrows(IllegalArgumentException.class, () -> importService.start("../users.ndjson", null));
+        assertThrows(IllegalArgumentException.class, () -> importService.start("missing.ndjson", null));
+    }
+
+    private UserImportService newImportService(UserServiceImpl userService) {
+        return newImportService(userService, 10);
+    }
+
+    private UserImportService newImportService(UserServiceImpl userService, int maxJobs) {
+        return new UserImportService(userService, new UserMapperImpl(),
+                Validation.buildDefaultValidatorFactory().getValidator(), Jackson2ObjectMapperBuilder.json().build(),
+                directory.toString(), 2, 2, maxJobs, 256, 3_600_000L);
+    }
+
+    private static UserServiceImpl newUserService() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        UserServiceImpl userService = new UserServiceImpl(userRepository, new BirthDateIndex(1), new EmailIndex(),
+                new NameSearchIndex(), event -> {
+        }, new UserWriter(userRepository, 1024, 256));
+        ReflectionTestUtils.setField(userService, "minimalAge", 18);
+        return userService;
+    }
+
+    private static UserImportJobDTO awaitJob(UserImportService importService, String file, UserImportFormat format)
+            throws InterruptedException {
+        String jobId = importService.start(file, format).getId();
+        try {
+            return awaitJob(importService, jobId);
+        } finally {
+            importService.shutdown();
+        }
+    }
+
+    private static UserImportJobDTO awaitJob(UserImportService importService, String jobId)
+            throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            UserImportJobDTO job = importService.findJob(jobId).orElseThrow();
+            if (job.getStatus() == UserImportJob.Status.COMPLETED || job.getStatus() == UserImportJob.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Import did not finish");
+    }
+}
@@ -0,0 +1,106 @@
+package clear.solution.test.index;
+
+import clear.solution.test.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BirthDateIndexTest {
+    private static final LocalDate FROM_1990 = LocalDate.of(1990, 1, 1);
+    private static final LocalDate TO_2000 = LocalDate.of(2000, 1, 1);
+
+    @Test
+    void testFindBetween_ConcatenatesChunksInOrder() {
+        BirthDateIndex index = new BirthDateIndex(4);
+        List<User> users = users(1000);
+        index.addAll(users);
+
+        List<User> found = index.findBetween(FROM_1990, TO_2000, id -> Optional.of(users.get((int) (id - 1))));
+
+        assertEquals(expected(users), found);
+    }
+
+    @Test
+    void testFindBetween_SameParallelAndSequential() {
+        BirthDateIndex parallel = new BirthDateIndex(7);
+        BirthDateIndex sequential = new BirthDateIndex(1);
+        List<User> users = users(500);
+        parallel.addAll(users);
+        sequential.addAll(users);
+
+        for (LocalDate toDate = FROM_1990; toDate.isBefore(TO_2000); toDate = toDate.plusDays(97)) {
+            assertEquals(sequential.findIdsBetween(FROM_1990.plusDays(3), toDate).toList(),
+                    parallel.findBetween(FROM_1990.plusDays(3), toDate, Optional::of));
+        }
+    }
+
+    @Test
+    void testFindBetween_SkipsUnresolvedIds() {
+        BirthDateIndex index = new BirthDateIndex(2);
+        index.addAll(users(10));
+
+        List<Long> found = index.findBetween(FROM_1990, TO_2000, id -> id % 2 == 0 ? Optional.of(id) : Optional.empty());
+
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L), found.stream().sorted().toList());
+    }
+
+    @Test
+    void testCountBetween_MatchesScan() {
+        BirthDateIndex index = new BirthDateIndex(1);
+        List<User> users = users(2000);
+        index.addAll(users);
+        users.subList(0, 500).forEach(index::remove);
+
+        for (LocalDate toDate = FROM_1990; toDate.isBefore(TO_2000); toDate = toDate.plusDays(89)) {
+            LocalDate fromDate = toDate.minusDays(400);
+            assertEquals(index.findIdsBetween(fromDate, toDate).count(), index.countBetween(fromDate, toDate));
+        }
+        assertEquals(1500, index.countBetween(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(0, index.countBetween(TO_2000, FROM_1990));
+    }
+
+    @Test
+    void testCountBetween_CountsDatesOutsideTrackedDaysOnTheirOwnDay() {
+        BirthDateIndex index = new BirthDateIndex(1);
+        index.add(new User(1L, "old@example.org", "Old", "Timer", LocalDate.of(1750, 1, 1), null, null));
+        index.add(new User(2L, "first@example.org", "First", "Day", LocalDate.of(1800, 1, 1), null, null));
+        index.add(new User(3L, "late@example.org", "Late", "Comer", LocalDate.of(2200, 1, 1), null, null));
+
+        assertEquals(1, index.countBetween(LocalDate.of(1700, 1, 1), LocalDate.of(1760, 1, 1)));
+        assertEquals(1, index.countBetween(LocalDate.of(1790, 1, 1), LocalDate.of(1801, 1, 1)));
+        assertEquals(2, index.countBetween(LocalDate.of(1749, 12, 31), LocalDate.of(1800, 1, 2)));
+        assertEquals(0, index.countBetween(LocalDate.of(2150, 1, 1), LocalDate.of(2200, 1, 1)));
+        assertEquals(1, index.countBetween(LocalDate.of(2199, 12, 31), LocalDate.of(2300, 1, 1)));
+        assertEquals(3, index.countBetween(LocalDate.MIN, LocalDate.MAX));
+        for (LocalDate day = LocalDate.of(2158, 1, 1); day.isBefore(LocalDate.of(2160, 1, 1)); day = day.plusDays(1)) {
+            assertEquals(0, index.countBetween(day, day.plusDays(400)));
+        }
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new BirthDateIndex(0));
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            // Several users share each birth date, so ordering by id within a date is exercised too.
+            LocalDate birthDate = FROM_1990.plusDays(1 + (id * 37) % 3000);
+            users.add(new User(id, "user" + id + "@example.org", "First", "Last", birthDate, null, null));
+        }
+        return users;
+    }
+
+    private static List<User> expected(List<User> users) {
+        return users.stream()
+                .sorted(Comparator.comparing(User::getBirthDate).thenComparing(User::getId))
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package clear.solution.test.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+    private final NameSearchIndex index = new NameSearchIndex();
+
+    @Test
+    void testSearch_RanksExactThenShorterPrefixThenFuzzyMatches() {
+        index.add(1L, "Johnathan", "Doe");
+        index.add(2L, "John", "Smith");
+        index.add(3L, "Johnny", "Ten");
+        index.add(4L, "Jon", "Kim");
+
+        assertEquals(List.of(2L, 3L, 1L, 4L), index.search("john", 10));
+        assertEquals(List.of(2L, 3L), index.search("john", 2));
+    }
+
+    @Test
+    void testSearch_ShortPrefixKeepsBestMatchesWithLowestIds() {
+        for (long id = 5_000; id >= 1; id--) {
+            index.add(id, "Jo", id % 2 == 0 ? "Doe" : "Ten");
+        }
+        index.add(9_000L, "J", "Doe");
+        index.add(9_001L, "Jay", "Doe");
+
+        assertEquals(List.of(9_000L, 1L, 2L), index.search("j", 3));
+        assertEquals(9_001L, index.search("j", 5_002).get(5_001));
+        assertEquals(List.of(9_000L, 2L, 4L), index.search("j doe", 3));
+    }
+
+    @Test
+    void testSearch_FindsMatchesOfEveryTermBeyondTheLowestIdsOfACommonOne() {
+        for (long id = 1; id <= 12_000; id++) {
+            index.add(id, "John", "Doe");
+        }
+        index.add(20_000L, "John", "Smith");
+        index.add(20_001L, "Johnny", "Smithers");
+
+        assertEquals(List.of(20_000L, 20_001L), index.search("john smith", 10));
+        assertEquals(List.of(20_000L), index.search("smith john", 1));
+        assertEquals(List.of(20_000L, 20_001L), index.search("jo smit", 10));
+    }
+}
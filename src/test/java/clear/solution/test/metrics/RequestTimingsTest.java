@@ -0,0 +1,66 @@
+package clear.solution.test.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void testTime_RunsUntimedOutsideTimedRequests() {
+        assertNull(RequestTimings.current());
+        assertEquals("user", RequestTimings.time(RequestStage.SERVICE, () -> "user"));
+    }
+
+    @Test
+    void testTime_AccumulatesRepeatedStages() {
+        RequestTimings timings = RequestTimings.start(true);
+
+        RequestTimings.time(RequestStage.MAPPING, RequestTimingsTest::sleep);
+        RequestTimings.time(RequestStage.MAPPING, RequestTimingsTest::sleep);
+
+        assertSame(timings, RequestTimings.current());
+        assertTrue(timings.getStageNanos(RequestStage.MAPPING) >= 4_000_000);
+        assertEquals(0, timings.getStageNanos(RequestStage.SERVICE));
+    }
+
+    @Test
+    void testTime_RecordsFailedStages() {
+        RequestTimings timings = RequestTimings.start(false);
+
+        assertThrows(IllegalStateException.class, () -> RequestTimings.time(RequestStage.SERVICE, () -> {
+            sleep();
+            throw new IllegalStateException();
+        }));
+
+        assertTrue(timings.getStageNanos(RequestStage.SERVICE) >= 1_000_000);
+    }
+
+    @Test
+    void testToServerTimingHeader_ListsStagesThatRanInOrder() {
+        RequestTimings timings = RequestTimings.start(true);
+        timings.add(RequestStage.SERIALIZATION, 250_000);
+        timings.add(RequestStage.VALIDATION, 1_500_000);
+
+        String header = timings.toServerTimingHeader();
+
+        assertTrue(header.startsWith("validation;dur=1.500;desc=\"" + RequestStage.VALIDATION.getDescription()
+                + "\", serialization;dur=0.250;desc=\""), header);
+        assertTrue(header.matches(".*, total;dur=\\d+\\.\\d{3}"), header);
+        assertFalse(header.contains("service"), header);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarUserRepositoryTest {
+    private final ColumnarUserRepository userRepository = new ColumnarUserRepository();
+
+    @Test
+    void testSaveAndFindById_isOk() {
+        User user = userRepository.save(new User(userRepository.nextId(), "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), null, "6625550144"));
+
+        User found = userRepository.findById(user.getId()).orElseThrow();
+
+        assertEquals(user, found);
+        assertNotSame(user, found);
+        assertTrue(userRepository.findById(user.getId() + 1).isEmpty());
+    }
+
+    @Test
+    void testSave_KeepsNonAsciiStrings() {
+        User user = userRepository.save(new User(userRepository.nextId(), "jürgen@example.org", "Jürgen", "Łukasz",
+                LocalDate.of(1990, 1, 1), "вул. Хрещатик 1", "6625550144"));
+
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testUpdate_isOk() {
+        User user = userRepository.save(newUser(userRepository.nextId()));
+
+        userRepository.update(user.getId(), stored -> {
+            stored.setAddress("57 Main St");
+            return stored;
+        });
+
+        assertEquals("57 Main St", userRepository.findById(user.getId()).orElseThrow().getAddress());
+        assertTrue(userRepository.update(user.getId() + 1, stored -> stored).isEmpty());
+    }
+
+    @Test
+    void testDeleteById_ReusesSlot() {
+        User deletedUser = userRepository.save(newUser(userRepository.nextId()));
+        User keptUser = userRepository.save(newUser(userRepository.nextId()));
+
+        assertEquals(deletedUser, userRepository.deleteById(deletedUser.getId()).orElseThrow());
+        User newUser = userRepository.save(newUser(userRepository.nextId()));
+
+        assertTrue(userRepository.findById(deletedUser.getId()).isEmpty());
+        assertEquals(2, userRepository.count());
+        assertEquals(Set.of(keptUser.getId(), newUser.getId()),
+                userRepository.findAll().map(User::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void testSaveAll_SurvivesStringCompaction() {
+        Long firstId = userRepository.allocateIds(1000);
+        List<User> users = LongStream.range(firstId, firstId + 1000)
+                .mapToObj(ColumnarUserRepositoryTest::newUser)
+                .toList();
+        userRepository.saveAll(users);
+        String longAddress = "x".repeat(10_000);
+        for (int round = 0; round < 5; round++) {
+            for (User user : users) {
+                userRepository.update(user.getId(), stored -> {
+                    stored.setAddress(longAddress);
+                    return stored;
+                });
+            }
+        }
+
+        for (User user : users) {
+            User stored = userRepository.findById(user.getId()).orElseThrow();
+            assertEquals(longAddress, stored.getAddress());
+            assertEquals(user.getEmail(), stored.getEmail());
+        }
+    }
+
+    private static User newUser(Long id) {
+        return new User(id, "user" + id + "@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144");
+    }
+}
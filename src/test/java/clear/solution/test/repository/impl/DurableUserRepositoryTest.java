@@ -0,0 +1,159 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableUserRepositoryTest {
+    private static final long SNAPSHOT_INTERVAL_MS = 3_600_000L;
+
+    @TempDir
+    Path directory;
+
+    private DurableUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        userRepository = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        userRepository.close();
+    }
+
+    @Test
+    void testRecover_ReplaysWriteAheadLog() throws IOException {
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        User deletedUser = userRepository.save(newUser(userRepository.nextId(), "bob.ten@example.org"));
+        userRepository.update(user.getId(), stored -> {
+            stored.setAddress("57 Main St");
+            return stored;
+        });
+        userRepository.deleteById(deletedUser.getId());
+
+        reopen();
+
+        assertEquals(1, userRepository.count());
+        assertEquals("57 Main St", userRepository.findById(user.getId()).orElseThrow().getAddress());
+        assertTrue(userRepository.findById(deletedUser.getId()).isEmpty());
+        assertEquals(3L, userRepository.nextId());
+    }
+
+    @Test
+    void testRecover_LoadsSnapshotAndReplaysLogTail() throws IOException {
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        userRepository.snapshot();
+        Long firstId = userRepository.allocateIds(2);
+        userRepository.saveAll(List.of(newUser(firstId, "bob.ten@example.org"),
+                newUser(firstId + 1, "alice.kim@example.org")));
+        userRepository.update(user.getId(), stored -> {
+            stored.setEmail("jane.ten@example.org");
+            return stored;
+        });
+
+        reopen();
+
+        assertEquals(3, userRepository.count());
+        assertEquals("jane.ten@example.org", userRepository.findById(user.getId()).orElseThrow().getEmail());
+        assertEquals("alice.kim@example.org", userRepository.findById(firstId + 1).orElseThrow().getEmail());
+        assertFalse(Files.exists(directory.resolve("wal-0000000000000000000.log")));
+    }
+
+    @Test
+    void testRecover_IgnoresTornRecordAtTheEndOfTheLog() throws IOException {
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        userRepository.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.filter(file -> file.toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+        }
+
+        userRepository = open();
+
+        assertEquals(1, userRepository.count());
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testInBatch_LogsEveryMutationOfTheBatch() throws IOException {
+        User deletedUser = userRepository.save(newUser(userRepository.nextId(), "bob.ten@example.org"));
+
+        userRepository.inBatch(() -> {
+            userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+            userRepository.update(2L, stored -> new User(2L, "jane.ten@example.org", "Jane", "Ten",
+                    stored.getBirthDate(), null, null));
+            userRepository.deleteById(deletedUser.getId());
+        });
+        reopen();
+
+        assertEquals(1, userRepository.count());
+        assertEquals("jane.ten@example.org", userRepository.findById(2L).orElseThrow().getEmail());
+    }
+
+    @Test
+    void testMutations_LeaveMemoryUnchangedWhenTheLogFails() throws IOException {
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        userRepository.close();
+
+        assertThrows(UncheckedIOException.class,
+                () -> userRepository.save(newUser(userRepository.nextId(), "bob.ten@example.org")));
+        assertThrows(UncheckedIOException.class, () -> userRepository.update(user.getId(),
+                stored -> new User(stored.getId(), "jane.ten@example.org", "Jane", "Ten", stored.getBirthDate(),
+                        null, null)));
+        assertThrows(UncheckedIOException.class, () -> userRepository.deleteById(user.getId()));
+
+        assertEquals(1, userRepository.count());
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testSave_RejectsAppendsOnceTheLogCannotDropAFailedOne() throws IOException {
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+
+        // An interrupt closes the channel, so the failed append cannot be cut off the segment either.
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(UncheckedIOException.class,
+                    () -> userRepository.save(newUser(userRepository.nextId(), "bob.ten@example.org")));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertFalse(userRepository.isWritable());
+        assertThrows(UncheckedIOException.class,
+                () -> userRepository.save(newUser(userRepository.nextId(), "alice.kim@example.org")));
+        reopen();
+        assertTrue(userRepository.isWritable());
+        assertEquals(List.of(user), userRepository.findAll().toList());
+    }
+
+    private void reopen() throws IOException {
+        userRepository.close();
+        userRepository = open();
+    }
+
+    private DurableUserRepository open() throws IOException {
+        DurableUserRepository repository = new DurableUserRepository(new InMemoryUserRepository(),
+                directory.toString(), SNAPSHOT_INTERVAL_MS);
+        repository.recover();
+        return repository;
+    }
+
+    private static User newUser(Long id, String email) {
+        return new User(id, email, "Jane", "Doe", LocalDate.of(1990, 1, 1), "42 Main St", "6625550144");
+    }
+}
@@ -0,0 +1,105 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserRepositoryTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+
+    @Test
+    void testSaveAndFindById_isOk() {
+        User user = newUser(userRepository.nextId());
+        userRepository.save(user);
+
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+        assertTrue(userRepository.findById(user.getId() + 1).isEmpty());
+    }
+
+    @Test
+    void testUpdate_UserNotFound() {
+        assertTrue(userRepository.update(1L, user -> user).isEmpty());
+    }
+
+    @Test
+    void testDeleteById_isOk() {
+        User user = userRepository.save(newUser(userRepository.nextId()));
+
+        assertEquals(user, userRepository.deleteById(user.getId()).orElseThrow());
+        assertTrue(userRepository.deleteById(user.getId()).isEmpty());
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void testConcurrentCreates_noDuplicateIds() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                User user = userRepository.save(newUser(userRepository.nextId()));
+                assertTrue(ids.add(user.getId()), "Duplicate id " + user.getId());
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, ids.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, userRepository.count());
+    }
+
+    @Test
+    void testConcurrentUpdatesOfSameUser_noLostUpdates() throws Exception {
+        User user = newUser(userRepository.nextId());
+        user.setAddress("0");
+        userRepository.save(user);
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                userRepository.update(user.getId(), stored -> {
+                    stored.setAddress(String.valueOf(Integer.parseInt(stored.getAddress()) + 1));
+                    return stored;
+                });
+            }
+        });
+
+        assertEquals(String.valueOf(THREADS * OPERATIONS_PER_THREAD),
+                userRepository.findById(user.getId()).orElseThrow().getAddress());
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User newUser(Long id) {
+        return new User(id, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144");
+    }
+}
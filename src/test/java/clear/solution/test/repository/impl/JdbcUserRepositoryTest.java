@@ -0,0 +1,159 @@
+package clear.solution.test.repository.impl;
+
+import clear.solution.test.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcUserRepositoryTest {
+    private static final long FLUSH_INTERVAL_MS = 3_600_000L;
+
+    @TempDir
+    Path directory;
+
+    private JdbcUserRepository userRepository;
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        userRepository.close();
+    }
+
+    @Test
+    void testClose_FlushesPendingWrites() throws SQLException {
+        userRepository = open(100, true);
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        User deletedUser = userRepository.save(newUser(userRepository.nextId(), "bob.ten@example.org"));
+        userRepository.flush();
+        userRepository.update(user.getId(), stored -> withAddress(stored, "57 Main St"));
+        userRepository.deleteById(deletedUser.getId());
+
+        reopen(100, true);
+
+        assertEquals(1, userRepository.count());
+        assertEquals("57 Main St", userRepository.findById(user.getId()).orElseThrow().getAddress());
+        assertTrue(userRepository.findById(deletedUser.getId()).isEmpty());
+        assertEquals(3L, userRepository.nextId());
+    }
+
+    @Test
+    void testUpdate_CoalescesWithPendingWritesOfTheSameUser() throws SQLException {
+        userRepository = open(100, true);
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        userRepository.update(user.getId(), stored -> withAddress(stored, "57 Main St"));
+        userRepository.update(user.getId(), stored -> withAddress(stored, "99 Side St"));
+
+        assertEquals(1, userRepository.pendingWrites());
+        assertEquals("99 Side St", userRepository.findById(user.getId()).orElseThrow().getAddress());
+
+        userRepository.flush();
+        userRepository.update(user.getId(), stored -> withAddress(stored, "1 Elm St"));
+        userRepository.update(user.getId(), stored -> withAddress(stored, "2 Elm St"));
+
+        assertEquals(1, userRepository.pendingWrites());
+        reopen(100, true);
+        assertEquals("2 Elm St", userRepository.findById(user.getId()).orElseThrow().getAddress());
+    }
+
+    @Test
+    void testDeleteById_DropsPendingInsertOfTheSameUser() throws SQLException {
+        userRepository = open(100, true);
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+
+        assertEquals(user, userRepository.deleteById(user.getId()).orElseThrow());
+        assertEquals(0, userRepository.pendingWrites());
+        assertEquals(0, userRepository.count());
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+
+    @Test
+    void testFindById_ReadsThroughToTheDatabaseWhenNotCached() throws SQLException {
+        userRepository = open(0, true);
+        Long firstId = userRepository.allocateIds(2);
+        userRepository.saveAll(List.of(newUser(firstId, "jane.doe@example.org"),
+                newUser(firstId + 1, "bob.ten@example.org")));
+
+        assertEquals("bob.ten@example.org", userRepository.findById(firstId + 1).orElseThrow().getEmail());
+        userRepository.flush();
+
+        assertEquals(0, userRepository.pendingWrites());
+        assertEquals("bob.ten@example.org", userRepository.findById(firstId + 1).orElseThrow().getEmail());
+        assertTrue(userRepository.findById(firstId + 2).isEmpty());
+    }
+
+    @Test
+    void testFindAll_IncludesPendingWrites() throws SQLException {
+        userRepository = open(100, true);
+        Long firstId = userRepository.allocateIds(3);
+        userRepository.saveAll(List.of(newUser(firstId, "jane.doe@example.org"),
+                newUser(firstId + 1, "bob.ten@example.org"), newUser(firstId + 2, "alice.kim@example.org")));
+        userRepository.deleteById(firstId + 1);
+
+        try (Stream<User> users = userRepository.findAll()) {
+            assertEquals(List.of(firstId, firstId + 2), users.map(User::getId).toList());
+        }
+    }
+
+    @Test
+    void testSave_WithoutWriteBehindIsWrittenBeforeReturning() throws SQLException {
+        userRepository = open(100, false);
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+
+        assertEquals(0, userRepository.pendingWrites());
+
+        userRepository.inBatch(() -> {
+            userRepository.update(user.getId(), stored -> withAddress(stored, "57 Main St"));
+            assertEquals(1, userRepository.pendingWrites());
+        });
+
+        assertEquals(0, userRepository.pendingWrites());
+    }
+
+    @Test
+    void testFlush_DropsOnlyTheWritesTheDatabaseRejects() throws SQLException {
+        userRepository = open(100, true);
+        User user = userRepository.save(newUser(userRepository.nextId(), "jane.doe@example.org"));
+        // Longer than the address column, as only the API checks lengths.
+        User rejectedUser = userRepository.save(withAddress(newUser(userRepository.nextId(), "bob.ten@example.org"),
+                "a".repeat(User.MAX_ADDRESS_LENGTH + 1)));
+
+        userRepository.flush();
+
+        assertEquals(0, userRepository.pendingWrites());
+        assertEquals(1, userRepository.droppedWrites());
+        assertEquals(1, userRepository.count());
+        assertTrue(userRepository.findById(rejectedUser.getId()).isEmpty());
+        reopen(100, true);
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+        assertTrue(userRepository.findById(rejectedUser.getId()).isEmpty());
+        assertEquals(3L, userRepository.nextId());
+    }
+
+    private void reopen(int maxCachedUsers, boolean writeBehind) throws SQLException {
+        userRepository.close();
+        userRepository = open(maxCachedUsers, writeBehind);
+    }
+
+    private JdbcUserRepository open(int maxCachedUsers, boolean writeBehind) throws SQLException {
+        JdbcUserRepository repository = new JdbcUserRepository("jdbc:h2:file:" + directory.resolve("users"),
+                "sa", "", 2, maxCachedUsers, FLUSH_INTERVAL_MS, 1_000, 10_000, writeBehind);
+        repository.open();
+        return repository;
+    }
+
+    private static User withAddress(User user, String address) {
+        return new User(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getBirthDate(), address, user.getPhoneNumber());
+    }
+
+    private static User newUser(Long id, String email) {
+        return new User(id, email, "Jane", "Doe", LocalDate.of(1990, 1, 1), "42 Main St", "6625550144");
+    }
+}
@@ -0,0 +1,42 @@
+package clear.solution.test.service.impl;
+
+import clear.solution.test.entity.User;
+import clear.solution.test.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MeteredUserServiceTest {
+    private final UserServiceImpl delegate = mock(UserServiceImpl.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredUserService userService = new MeteredUserService(delegate, meterRegistry);
+
+    @Test
+    void testFindUsersByBirthDateRange_RecordsTimeAndResultSize() {
+        LocalDate fromDate = LocalDate.of(1990, 1, 1);
+        LocalDate toDate = LocalDate.of(2000, 1, 1);
+        User user = new User(1L, "jane.doe@example.org", "Jane", "Doe", LocalDate.of(1995, 1, 1), null, null);
+        when(delegate.findUsersByBirthDateRange(fromDate, toDate)).thenReturn(List.of(user, user));
+
+        assertEquals(2, userService.findUsersByBirthDateRange(fromDate, toDate).size());
+
+        assertEquals(1, meterRegistry.get(MeteredUserService.OPERATION_TIMER)
+                .tag("operation", "findUsersByBirthDateRange").timer().count());
+        assertEquals(2, meterRegistry.get(MeteredUserService.RANGE_RESULT_SIZE).summary().totalAmount());
+    }
+
+    @Test
+    void testDeletedUser_RecordsFailedCalls() {
+        doThrow(new UserNotFoundException("User not found for this id: 1")).when(delegate).deletedUser(1L);
+
+        assertThrows(UserNotFoundException.class, () -> userService.deletedUser(1L));
+
+        assertEquals(1, meterRegistry.get(MeteredUserService.OPERATION_TIMER)
+                .tag("operation", "deletedUser").timer().count());
+    }
+}
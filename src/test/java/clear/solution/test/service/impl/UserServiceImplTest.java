@@ -1,9 +1,17 @@
 package clear.solution.test.service.impl;
 
 import clear.solution.test.entity.User;
+import clear.solution.test.exception.DuplicateEmailException;
 import clear.solution.test.exception.InvalidAgeException;
 import clear.solution.test.exception.UserNotFoundException;
+import clear.solution.test.index.BirthDateIndex;
+import clear.solution.test.index.BirthDateKey;
+import clear.solution.test.index.EmailIndex;
+import clear.solution.test.index.NameSearchIndex;
 import clear.solution.test.mapper.UserMapperImpl;
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import clear.solution.test.service.BatchCreateResult;
+import clear.solution.test.service.UserPatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,13 +21,20 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = {UserServiceImpl.class, UserMapperImpl.class})
+@ContextConfiguration(classes = {UserServiceImpl.class, UserMapperImpl.class, InMemoryUserRepository.class,
+        BirthDateIndex.class, EmailIndex.class, NameSearchIndex.class, UserWriter.class})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class UserServiceImplTest {
 
@@ -92,6 +107,20 @@ class UserServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> userServiceImpl.updateUserFields(1L, fieldsToUpdate));
     }
 
+    @Test
+    void testUpdateUserFields_MergePatchClearsNullFields() {
+        User user = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+
+        User patched = userServiceImpl.updateUserFields(user.getId(), new UserPatch()
+                .set(UserPatch.Field.EMAIL, "jane.smith@example.org")
+                .set(UserPatch.Field.ADDRESS, null));
+
+        assertEquals(new User(user.getId(), "jane.smith@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), null, "6625550144"), patched);
+        assertEquals(user.getId(), userServiceImpl.findUserByEmail("jane.smith@example.org").getId());
+    }
+
     @Test
     void testUpdateUser_isOk() {
         User requestUser = new User(null, "jane.doe@example.org", "Jane", "Doe",
@@ -150,5 +179,222 @@ class UserServiceImplTest {
 
         assertThrows(IllegalArgumentException.class, () -> userServiceImpl.findUsersByBirthDateRange(fromDate, toDate));
     }
-}
 
+    @Test
+    void testFindUsersByBirthDateRange_isOk() {
+        User first = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+        User second = userServiceImpl.createUser(new User(null, "bob.ten@example.org", "Bob", "Ten",
+                LocalDate.of(1985, 5, 15), "57 Main St", "3800000000"));
+        userServiceImpl.createUser(new User(null, "alice.kim@example.org", "Alice", "Kim",
+                LocalDate.of(1980, 1, 1), "90 Main St", "3800011100"));
+
+        List<User> users = userServiceImpl.findUsersByBirthDateRange(LocalDate.of(1980, 1, 1),
+                LocalDate.of(1990, 1, 2));
+
+        assertEquals(List.of(second, first), users);
+    }
+
+    @Test
+    void testFindUsersByBirthDateRange_DeletedUserIsNotReturned() {
+        User user = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+        User updatedUser = userServiceImpl.updateUser(user.getId(), new User(null, "bob.ten@example.org", "Bob",
+                "Ten", LocalDate.of(1990, 1, 1), "57 Main St", "6625550144"));
+        LocalDate fromDate = LocalDate.of(1989, 12, 31);
+        LocalDate toDate = LocalDate.of(1990, 1, 2);
+        assertEquals(List.of(updatedUser), userServiceImpl.findUsersByBirthDateRange(fromDate, toDate));
+
+        userServiceImpl.deletedUser(user.getId());
+
+        assertTrue(userServiceImpl.findUsersByBirthDateRange(fromDate, toDate).isEmpty());
+    }
+
+    @Test
+    void testFindUsersByBirthDateRange_PagesFollowKeysetOrder() {
+        User first = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+        User second = userServiceImpl.createUser(new User(null, "bob.ten@example.org", "Bob", "Ten",
+                LocalDate.of(1990, 1, 1), "57 Main St", "3800000000"));
+        User third = userServiceImpl.createUser(new User(null, "alice.kim@example.org", "Alice", "Kim",
+                LocalDate.of(1991, 1, 1), "90 Main St", "3800011100"));
+        LocalDate fromDate = LocalDate.of(1980, 1, 1);
+        LocalDate toDate = LocalDate.of(2000, 1, 1);
+
+        List<User> firstPage = userServiceImpl.findUsersByBirthDateRange(fromDate, toDate, null, 2);
+        BirthDateKey after = new BirthDateKey(second.getBirthDate(), second.getId());
+        List<User> secondPage = userServiceImpl.findUsersByBirthDateRange(fromDate, toDate, after, 2);
+
+        assertEquals(List.of(first, second), firstPage);
+        assertEquals(List.of(third), secondPage);
+    }
+
+    @Test
+    void testCreateUsers_AllocatesContiguousIdsAndReportsUnderageUsers() {
+        userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+
+        List<BatchCreateResult> results = userServiceImpl.createUsers(List.of(
+                new User(null, "bob.ten@example.org", "Bob", "Ten",
+                        LocalDate.of(1985, 5, 15), "57 Main St", "3800000000"),
+                new User(null, "young.kid@example.org", "Young", "Kid",
+                        LocalDate.now().minusYears(1), "1 Main St", "3800000001"),
+                new User(null, "alice.kim@example.org", "Alice", "Kim",
+                        LocalDate.of(1980, 1, 1), "90 Main St", "3800011100")));
+
+        assertEquals(3, results.size());
+        assertEquals(2L, results.get(0).getUser().getId());
+        assertFalse(results.get(1).isCreated());
+        assertEquals("User is under the minimum age.", results.get(1).getError());
+        assertEquals(3L, results.get(2).getUser().getId());
+        assertEquals(3, userServiceImpl.findUsersByBirthDateRange(LocalDate.of(1970, 1, 1),
+                LocalDate.of(2000, 1, 1)).size());
+    }
+
+    @Test
+    void testCreateUser_DuplicateEmail() {
+        userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+
+        assertThrows(DuplicateEmailException.class, () -> userServiceImpl.createUser(new User(null,
+                " Jane.Doe@Example.org", "Jane", "Doe", LocalDate.of(1991, 1, 1), "42 Main St", "6625550144")));
+    }
+
+    @Test
+    void testFindUserByEmail_isOk() {
+        User user = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+
+        assertEquals(user, userServiceImpl.findUserByEmail("JANE.DOE@example.org"));
+        assertThrows(UserNotFoundException.class, () -> userServiceImpl.findUserByEmail("bob.ten@example.org"));
+    }
+
+    @Test
+    void testUpdateUserFields_EmailChangeMovesIndexEntry() {
+        userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+        User bob = userServiceImpl.createUser(new User(null, "bob.ten@example.org", "Bob", "Ten",
+                LocalDate.of(1985, 5, 15), "57 Main St", "3800000000"));
+
+        assertThrows(DuplicateEmailException.class,
+                () -> userServiceImpl.updateUserFields(bob.getId(), Map.of("email", "jane.doe@example.org")));
+        userServiceImpl.updateUserFields(bob.getId(), Map.of("email", "bob.new@example.org"));
+
+        assertEquals(bob.getId(), userServiceImpl.findUserByEmail("bob.new@example.org").getId());
+        assertThrows(UserNotFoundException.class, () -> userServiceImpl.findUserByEmail("bob.ten@example.org"));
+    }
+
+    @Test
+    void testDeletedUser_ReleasesEmail() {
+        User user = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+
+        userServiceImpl.deletedUser(user.getId());
+
+        assertNotNull(userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144")));
+    }
+
+    @Test
+    void testSearchUsersByName_RanksPrefixAndTypoMatches() {
+        User nikita = userServiceImpl.createUser(new User(null, "nikita.kovalenko@example.org", "Nikita", "Kovalenko",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+        User nikolai = userServiceImpl.createUser(new User(null, "nikolai.kovac@example.org", "Nikolai", "Kovac",
+                LocalDate.of(1985, 5, 15), "57 Main St", "3800000000"));
+        userServiceImpl.createUser(new User(null, "alice.kim@example.org", "Alice", "Kim",
+                LocalDate.of(1999, 4, 20), "90 Main St", "3800011100"));
+
+        assertEquals(List.of(nikita), userServiceImpl.searchUsersByName("Nikit", 10));
+        assertEquals(List.of(nikita), userServiceImpl.searchUsersByName("nikta", 10));
+        assertEquals(List.of(nikolai, nikita), userServiceImpl.searchUsersByName("nik kov", 10));
+        assertEquals(1, userServiceImpl.searchUsersByName("nik", 1).size());
+        assertThrows(IllegalArgumentException.class, () -> userServiceImpl.searchUsersByName(" ", 10));
+    }
+
+    @Test
+    void testSearchUsersByName_FollowsRenamesAndDeletes() {
+        User jane = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+
+        userServiceImpl.updateUserFields(jane.getId(), Map.of("lastName", "Smith"));
+        assertTrue(userServiceImpl.searchUsersByName("doe", 10).isEmpty());
+        assertEquals(List.of(jane.getId()), userServiceImpl.searchUsersByName("smith", 10)
+                .stream().map(User::getId).toList());
+
+        userServiceImpl.deletedUser(jane.getId());
+        assertTrue(userServiceImpl.searchUsersByName("jane", 10).isEmpty());
+    }
+
+    @Test
+    void testCountUsersByBirthDateRange_FollowsCreatesAndDeletes() {
+        User jane = userServiceImpl.createUser(new User(null, "jane.doe@example.org", "Jane", "Doe",
+                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+        userServiceImpl.createUser(new User(null, "bob.ten@example.org", "Bob", "Ten",
+                LocalDate.of(1995, 6, 15), "57 Main St", "6625550145"));
+
+        assertEquals(2, userServiceImpl.countUsersByBirthDateRange(LocalDate.of(1989, 12, 31), LocalDate.of(1995, 6, 16)));
+        assertEquals(1, userServiceImpl.countUsersByBirthDateRange(LocalDate.of(1990, 1, 1), LocalDate.of(1995, 6, 16)));
+
+        userServiceImpl.deletedUser(jane.getId());
+        assertEquals(1, userServiceImpl.countUsersByBirthDateRange(LocalDate.of(1989, 12, 31), LocalDate.of(1995, 6, 16)));
+        assertThrows(IllegalArgumentException.class,
+                () -> userServiceImpl.countUsersByBirthDateRange(LocalDate.of(1995, 6, 16), LocalDate.of(1990, 1, 1)));
+    }
+
+    @Test
+    void testCreateUser_ConcurrentWritersRaceForSameEmail() throws Exception {
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                String firstName = "Jane" + i;
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userServiceImpl.createUser(new User(null, "jane.doe@example.org", firstName, "Doe",
+                                LocalDate.of(1990, 1, 1), "42 Main St", "6625550144"));
+                        return true;
+                    } catch (DuplicateEmailException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<Boolean> attempt : attempts) {
+                created += attempt.get() ? 1 : 0;
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFindUsersByBirthDateRange_NeverSeesHalfAppliedUpdate() throws Exception {
+        User user = userServiceImpl.createUser(new User(null, "jane@example.org", "Jane", "Jane",
+                LocalDate.of(1990, 1, 1), "Jane St", null));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> updates = executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    String name = i % 2 == 0 ? "Bob" : "Jane";
+                    userServiceImpl.updateUser(user.getId(), new User(null, name.toLowerCase() + "@example.org",
+                            name, name, LocalDate.of(1990, 1, 1), name + " St", null));
+                }
+            });
+            while (!updates.isDone()) {
+                User seen = userServiceImpl.findUsersByBirthDateRange(LocalDate.of(1989, 1, 1),
+                        LocalDate.of(1991, 1, 1)).get(0);
+                assertEquals(seen.getFirstName(), seen.getLastName());
+                assertEquals(seen.getFirstName().toLowerCase() + "@example.org", seen.getEmail());
+                assertEquals(seen.getFirstName() + " St", seen.getAddress());
+            }
+            updates.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package clear.solution.test.service.impl;
+
+import clear.solution.test.repository.impl.InMemoryUserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserWriterTest {
+    private final UserWriter userWriter = new UserWriter(new InMemoryUserRepository(), 4, 3);
+
+    @Test
+    void testExecute_AppliesOneMutationAtATime() throws Exception {
+        AtomicInteger writers = new AtomicInteger();
+        AtomicInteger maxWriters = new AtomicInteger();
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                results.add(executor.submit(() -> userWriter.execute(() -> {
+                    maxWriters.accumulateAndGet(writers.incrementAndGet(), Math::max);
+                    // Not atomic on purpose: only a single writer keeps the count exact.
+                    int next = counter.get() + 1;
+                    counter.set(next);
+                    writers.decrementAndGet();
+                    return next;
+                }, next -> {
+                })));
+            }
+            Set<Integer> seen = new HashSet<>();
+            for (Future<Integer> result : results) {
+                assertTrue(seen.add(result.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1_000, counter.get());
+        assertEquals(1, maxWriters.get());
+    }
+
+    @Test
+    void testExecute_RethrowsFailureToItsCallerOnly() {
+        assertThrows(IllegalArgumentException.class, () -> userWriter.execute(() -> {
+            throw new IllegalArgumentException("Bad mutation");
+        }, result -> {
+        }));
+
+        assertEquals("ok", userWriter.execute(() -> "ok", result -> {
+        }));
+    }
+
+    @Test
+    void testExecute_CallbackFailureIsRethrownAfterTheMutation() {
+        AtomicInteger applied = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> userWriter.execute(applied::incrementAndGet, result -> {
+            throw new IllegalStateException("Listener failed");
+        }));
+        assertEquals(1, applied.get());
+    }
+
+    @Test
+    void testExecute_CallbackCanMutateAgain() {
+        List<String> applied = new ArrayList<>();
+
+        userWriter.execute(() -> applied.add("first"), result -> userWriter.execute(() -> applied.add("second"),
+                nested -> {
+                }));
+
+        assertEquals(List.of("first", "second"), applied);
+    }
+
+    @Test
+    void testExecute_FailsMutationsOfAFailedBatchAndRejectsWritesUntilTheStoreRecovers() {
+        AtomicBoolean syncFails = new AtomicBoolean(true);
+        AtomicBoolean writable = new AtomicBoolean(true);
+        UserWriter failingWriter = new UserWriter(new InMemoryUserRepository() {
+            @Override
+            public void inBatch(Runnable mutations) {
+                mutations.run();
+                if (syncFails.get()) {
+                    writable.set(false);
+                    throw new IllegalStateException("Sync failed");
+                }
+            }
+
+            @Override
+            public boolean isWritable() {
+                return writable.get();
+            }
+        }, 4, 3);
+        List<String> applied = new ArrayList<>();
+        List<String> committed = new ArrayList<>();
+
+        assertEquals("Sync failed", assertThrows(IllegalStateException.class,
+                () -> failingWriter.execute(() -> applied.add("lost"), result -> committed.add("lost"))).getMessage());
+        syncFails.set(false);
+        assertEquals("User writes are rejected until the store recovers", assertThrows(IllegalStateException.class,
+                () -> failingWriter.execute(() -> applied.add("rejected"), result -> committed.add("rejected")))
+                .getMessage());
+        writable.set(true);
+        assertTrue(failingWriter.execute(() -> applied.add("recovered"), result -> committed.add("recovered")));
+
+        assertEquals(List.of("lost", "recovered"), applied);
+        assertEquals(List.of("recovered"), committed);
+    }
+
+    @Test
+    void testExecute_BatchesMutationsQueuedWhileAnotherIsApplied() throws Exception {
+        AtomicInteger batches = new AtomicInteger();
+        UserWriter batchingWriter = new UserWriter(new InMemoryUserRepository() {
+            @Override
+            public void inBatch(Runnable mutations) {
+                batches.incrementAndGet();
+                mutations.run();
+            }
+        }, 4, 3);
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> blocking = executor.submit(() -> batchingWriter.execute(() -> {
+                applying.countDown();
+                awaitQuietly(release);
+                return null;
+            }, result -> {
+            }));
+            applying.await();
+            List<Future<String>> queued = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String name = "queued" + i;
+                queued.add(executor.submit(() -> batchingWriter.execute(() -> name, result -> {
+                })));
+            }
+            // The writer role is taken, so all three callers queue their mutation in the ring.
+            while (batchingWriter.queuedMutations() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            blocking.get();
+            for (int i = 0; i < 3; i++) {
+                assertEquals("queued" + i, queued.get(i).get());
+            }
+            assertEquals(2, batches.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}